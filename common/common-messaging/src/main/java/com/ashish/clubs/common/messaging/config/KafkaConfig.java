@@ -1,6 +1,7 @@
 package com.ashish.clubs.common.messaging.config;
 
 import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.messaging.serialization.DomainEventSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,14 +11,13 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Kafka Configuration for event publishing.
- * Configures KafkaTemplate with JSON serialization for DomainEvent objects.
+ * Configures KafkaTemplate with {@link DomainEventSerializer} (compact binary by default, JSON optional).
  */
 @Configuration
 @EnableKafka
@@ -38,6 +38,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.producer.linger-ms:10}")
     private int lingerMs;
 
+    @Value("${application.messaging.event-format:binary}")
+    private String eventFormat;
+
     /**
      * Configure producer factory for DomainEvent publishing.
      */
@@ -46,13 +49,13 @@ public class KafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, DomainEventSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, acks);
         configProps.put(ProducerConfig.RETRIES_CONFIG, retries);
         configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
         configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(DomainEventSerializer.FORMAT_CONFIG, eventFormat);
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
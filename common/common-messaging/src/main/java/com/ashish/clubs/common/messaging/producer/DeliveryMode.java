@@ -0,0 +1,27 @@
+package com.ashish.clubs.common.messaging.producer;
+
+/**
+ * How long a caller of {@link KafkaEventProducer} waits for an event before continuing.
+ * Lets each call site pick its own latency / durability trade-off.
+ */
+public enum DeliveryMode {
+
+    /**
+     * Completes once the broker has acknowledged the event (per the producer's acks setting).
+     * Failures are propagated to the caller. Slowest, but nothing is lost silently.
+     */
+    AWAIT_ACK,
+
+    /**
+     * Completes once the event is in the in-memory publish queue; it is sent with the next batch.
+     * Errors with an {@link IllegalStateException} when the queue is full (backpressure).
+     * Queued events are lost if the process dies before they are sent.
+     */
+    AWAIT_ENQUEUE,
+
+    /**
+     * Completes immediately. The event is queued if there is room and dropped (and counted) otherwise.
+     * Suited to analytics and other events that can be lost without harm.
+     */
+    BEST_EFFORT
+}
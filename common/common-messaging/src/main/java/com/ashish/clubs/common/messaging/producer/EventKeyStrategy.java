@@ -0,0 +1,32 @@
+package com.ashish.clubs.common.messaging.producer;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+
+/**
+ * Chooses the Kafka message key, and therefore the partition, of a domain event.
+ * Events with the same key are stored in order on one partition, so consumers can keep per-key
+ * state without coordinating across partitions. Declare a bean of this type to replace the default.
+ */
+@FunctionalInterface
+public interface EventKeyStrategy {
+
+    /**
+     * Keys events by {@code entityType:entityId}, so all events of one club, post, etc. share a partition.
+     * Falls back to the event id for events without an entity id.
+     */
+    EventKeyStrategy BY_ENTITY = event -> {
+        if (event.getEntityId() == null) {
+            return event.getEventId();
+        }
+        return event.getEntityType() != null
+                ? event.getEntityType() + ":" + event.getEntityId()
+                : event.getEntityId();
+    };
+
+    /**
+     * Keys events by their own id, spreading them evenly without any ordering guarantee.
+     */
+    EventKeyStrategy BY_EVENT_ID = DomainEvent::getEventId;
+
+    String keyFor(DomainEvent event);
+}
@@ -1,22 +1,105 @@
 package com.ashish.clubs.common.messaging.producer;
 
 import com.ashish.clubs.common.messaging.event.DomainEvent;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Kafka Event Producer for publishing domain events across the system.
  * Wraps KafkaTemplate with reactive support.
+ * <p>
+ * Besides awaiting the broker acknowledgement, events can be handed to a bounded in-memory queue that a
+ * background thread drains in batches, so Kafka latency stays off the caller's response path.
+ * See {@link DeliveryMode} for the guarantees of each mode. Queue depth and the enqueued, dropped,
+ * rejected, published and failed counts are exposed as {@code kafka.producer.*} metrics.
+ * <p>
+ * Unless a key is given explicitly, messages are keyed by the {@link EventKeyStrategy} bean, by default
+ * {@link EventKeyStrategy#BY_ENTITY}, so the events of one entity stay in order on a single partition.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class KafkaEventProducer {
 
+    private static final String METRIC_EVENTS = "kafka.producer.events";
+
     private final KafkaTemplate<String, DomainEvent> kafkaTemplate;
+    private final EventKeyStrategy keyStrategy;
+    private final BlockingQueue<QueuedEvent> queue;
+    private final int batchSize;
+    private final long shutdownTimeoutMs;
+
+    private final Counter enqueuedCounter;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running = true;
+    private Thread drainer;
+
+    public KafkaEventProducer(KafkaTemplate<String, DomainEvent> kafkaTemplate,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              ObjectProvider<EventKeyStrategy> keyStrategy,
+                              @Value("${application.messaging.producer.queue-capacity:10000}") int queueCapacity,
+                              @Value("${application.messaging.producer.batch-size:500}") int batchSize,
+                              @Value("${application.messaging.producer.shutdown-timeout-ms:5000}") long shutdownTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.keyStrategy = keyStrategy.getIfAvailable(() -> EventKeyStrategy.BY_ENTITY);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.enqueuedCounter = eventCounter(registry, "enqueued");
+        this.droppedCounter = eventCounter(registry, "dropped");
+        this.rejectedCounter = eventCounter(registry, "rejected");
+        this.publishedCounter = eventCounter(registry, "published");
+        this.failedCounter = eventCounter(registry, "failed");
+        Gauge.builder("kafka.producer.queue.depth", queue, BlockingQueue::size)
+                .description("Events waiting in the in-memory publish queue")
+                .register(registry);
+        Gauge.builder("kafka.producer.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("Free slots in the in-memory publish queue")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void startDrainer() {
+        drainer = new Thread(this::drainLoop, "kafka-event-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Stops accepting queued events and sends whatever is still in the queue before shutting down.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (drainer != null) {
+            drainer.join(shutdownTimeoutMs);
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} queued events were not published before shutdown", queue.size());
+        }
+        kafkaTemplate.flush();
+    }
 
     /**
      * Publish an event to a Kafka topic.
@@ -27,23 +110,27 @@ public class KafkaEventProducer {
      * @return Mono<Void> that completes when the event is sent
      */
     public Mono<Void> publishEvent(String topic, DomainEvent event) {
-        return Mono.fromFuture(() ->
-            kafkaTemplate.send(topic, event.getEventId(), event)
-                    .thenApply(result -> {
-                        log.info("Event published to topic {}: eventId={}, eventType={}",
-                                topic, event.getEventId(), event.getEventType());
-                        return (Void) null;
-                    })
-                    .exceptionally(ex -> {
-                        log.error("Failed to publish event to topic {}: eventId={}",
-                                topic, event.getEventId(), ex);
-                        throw new RuntimeException("Event publishing failed", ex);
-                    })
-        ).onErrorResume(ex -> {
-            log.error("Error publishing event to topic {}: eventId={}",
-                    topic, event.getEventId(), ex);
-            return Mono.error(ex);
-        });
+        return publishEventWithKey(topic, keyFor(event), event, DeliveryMode.AWAIT_ACK);
+    }
+
+    /**
+     * Publish an event to a Kafka topic with the given delivery mode.
+     *
+     * @param topic The Kafka topic name
+     * @param event The domain event to publish
+     * @param mode  How long the returned Mono waits, see {@link DeliveryMode}
+     * @return Mono<Void> that completes according to the delivery mode
+     */
+    public Mono<Void> publishEvent(String topic, DomainEvent event, DeliveryMode mode) {
+        return publishEventWithKey(topic, keyFor(event), event, mode);
+    }
+
+    /**
+     * @return The message key {@link #publishEvent} uses for the event.
+     */
+    public String keyFor(DomainEvent event) {
+        String key = keyStrategy.keyFor(event);
+        return key != null ? key : event.getEventId();
     }
 
     /**
@@ -55,14 +142,56 @@ public class KafkaEventProducer {
      * @return Mono<Void> that completes when the event is sent
      */
     public Mono<Void> publishEventWithKey(String topic, String key, DomainEvent event) {
+        return publishEventWithKey(topic, key, event, DeliveryMode.AWAIT_ACK);
+    }
+
+    /**
+     * Publish an event with a specific key and delivery mode.
+     *
+     * @param topic The Kafka topic name
+     * @param key The message key for partitioning
+     * @param event The domain event to publish
+     * @param mode  How long the returned Mono waits, see {@link DeliveryMode}
+     * @return Mono<Void> that completes according to the delivery mode
+     */
+    public Mono<Void> publishEventWithKey(String topic, String key, DomainEvent event, DeliveryMode mode) {
+        return switch (mode) {
+            case AWAIT_ACK -> sendAndAwait(topic, key, event);
+            case AWAIT_ENQUEUE -> Mono.defer(() -> {
+                if (enqueue(topic, key, event)) {
+                    return Mono.empty();
+                }
+                rejectedCounter.increment();
+                log.warn("Event queue full, rejecting event for topic {}: eventId={}", topic, event.getEventId());
+                return Mono.error(new IllegalStateException("Event publish queue is full"));
+            });
+            case BEST_EFFORT -> Mono.fromRunnable(() -> {
+                if (!enqueue(topic, key, event)) {
+                    droppedCounter.increment();
+                    log.debug("Event queue full, dropping event for topic {}: eventId={}", topic, event.getEventId());
+                }
+            });
+        };
+    }
+
+    /**
+     * @return The number of events waiting in the publish queue.
+     */
+    public int queuedEvents() {
+        return queue.size();
+    }
+
+    private Mono<Void> sendAndAwait(String topic, String key, DomainEvent event) {
         return Mono.fromFuture(() ->
             kafkaTemplate.send(topic, key, event)
                     .thenApply(result -> {
+                        publishedCounter.increment();
                         log.info("Event published to topic {} with key {}: eventId={}, eventType={}",
                                 topic, key, event.getEventId(), event.getEventType());
                         return (Void) null;
                     })
                     .exceptionally(ex -> {
+                        failedCounter.increment();
                         log.error("Failed to publish event to topic {} with key {}: eventId={}",
                                 topic, key, event.getEventId(), ex);
                         throw new RuntimeException("Event publishing failed", ex);
@@ -73,6 +202,71 @@ public class KafkaEventProducer {
             return Mono.error(ex);
         });
     }
-}
 
+    private boolean enqueue(String topic, String key, DomainEvent event) {
+        if (!running || !queue.offer(new QueuedEvent(topic, key, event))) {
+            return false;
+        }
+        enqueuedCounter.increment();
+        return true;
+    }
 
+    /**
+     * Takes events off the queue in batches of up to {@code batchSize} and hands them to the producer,
+     * which groups them into per-partition record batches. Sends are not awaited one by one; the
+     * outcome of each is recorded in the metrics when its acknowledgement arrives.
+     */
+    private void drainLoop() {
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (QueuedEvent queued : batch) {
+                    send(queued);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(QueuedEvent queued) {
+        try {
+            kafkaTemplate.send(queued.topic(), queued.key(), queued.event())
+                    .whenComplete((result, ex) -> {
+                        if (ex == null) {
+                            publishedCounter.increment();
+                            log.debug("Event published to topic {}: eventId={}, eventType={}",
+                                    queued.topic(), queued.event().getEventId(), queued.event().getEventType());
+                        } else {
+                            failedCounter.increment();
+                            log.error("Failed to publish queued event to topic {}: eventId={}",
+                                    queued.topic(), queued.event().getEventId(), ex);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // The producer can throw synchronously, e.g. when metadata is unavailable; keep draining
+            failedCounter.increment();
+            log.error("Failed to publish queued event to topic {}: eventId={}",
+                    queued.topic(), queued.event().getEventId(), e);
+        }
+    }
+
+    private static Counter eventCounter(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_EVENTS)
+                .tag("result", result)
+                .description("Domain events handled by KafkaEventProducer, by outcome")
+                .register(registry);
+    }
+
+    private record QueuedEvent(String topic, String key, DomainEvent event) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.IOException;
+
+/**
+ * Compact binary encoding of {@link DomainEvent}.
+ * <pre>
+ * magic (1) | format (1) | version (varint) | eventType | eventId | sourceService | entityId | entityType
+ *           | actorId | timestamp | payload kind (1) | payload length (varint) | payload
+ * </pre>
+ * Ids are stored as 16 raw bytes when they are UUIDs, there are no field names, and registered payloads
+ * are written by their {@link PayloadCodec} using the layout of the event's {@code version}. Payloads
+ * without a codec fall back to JSON inside the binary frame. The payload is length-prefixed, so a reader
+ * that only knows an older version skips the fields it does not understand.
+ */
+public final class BinaryDomainEventCodec {
+
+    /**
+     * First byte of every binary event. Never a valid first byte of a JSON document.
+     */
+    public static final byte MAGIC = (byte) 0xDE;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAYLOAD_NONE = 0;
+    private static final int PAYLOAD_TYPED = 1;
+    private static final int PAYLOAD_JSON = 2;
+
+    private final PayloadRegistry registry;
+
+    public BinaryDomainEventCodec(PayloadRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public byte[] encode(DomainEvent event) {
+        PayloadCodec<?> codec = registry.codecFor(event.getEventType());
+        Object payload = registry.toTyped(event.getEventType(), event.getPayload());
+        boolean typed = codec != null && codec.type().isInstance(payload);
+        // A producer may be ahead of this codec; write the newest layout we know and label it as such
+        int version = typed ? Math.min(Math.max(event.getVersion(), 1), codec.latestVersion()) : event.getVersion();
+
+        EventOutput out = new EventOutput(256);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarInt(version);
+        out.writeString(event.getEventType());
+        out.writeId(event.getEventId());
+        out.writeString(event.getSourceService());
+        out.writeId(event.getEntityId());
+        out.writeString(event.getEntityType());
+        out.writeId(event.getActorId());
+        out.writeInstant(event.getTimestamp());
+
+        if (payload == null) {
+            out.writeByte(PAYLOAD_NONE);
+        } else if (typed) {
+            EventOutput payloadOut = new EventOutput(192);
+            writeTyped(codec, payload, payloadOut, version);
+            out.writeByte(PAYLOAD_TYPED);
+            out.writeVarInt(payloadOut.size());
+            out.writeBytes(payloadOut.toByteArray());
+        } else {
+            byte[] json = toJson(payload);
+            out.writeByte(PAYLOAD_JSON);
+            out.writeVarInt(json.length);
+            out.writeBytes(json);
+        }
+        return out.toByteArray();
+    }
+
+    public DomainEvent decode(byte[] data) {
+        EventInput in = new EventInput(data);
+        if ((byte) in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary domain event");
+        }
+        int format = in.readByte();
+        if (format != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary event format " + format);
+        }
+        int version = in.readVarInt();
+        String eventType = in.readString();
+
+        DomainEvent event = DomainEvent.builder()
+                .version(version)
+                .eventType(eventType)
+                .eventId(in.readId())
+                .sourceService(in.readString())
+                .entityId(in.readId())
+                .entityType(in.readString())
+                .actorId(in.readId())
+                .timestamp(in.readInstant())
+                .build();
+
+        int kind = in.readByte();
+        if (kind == PAYLOAD_NONE) {
+            return event;
+        }
+        int length = in.readVarInt();
+        if (kind == PAYLOAD_TYPED) {
+            PayloadCodec<?> codec = registry.codecFor(eventType);
+            if (codec == null) {
+                throw new IllegalArgumentException("No payload codec registered for " + eventType);
+            }
+            int previousLimit = in.beginBlock(length);
+            event.setPayload(codec.read(in, Math.min(version, codec.latestVersion())));
+            in.endBlock(previousLimit);
+        } else {
+            event.setPayload(fromJson(in.readBytes(length)));
+        }
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void writeTyped(PayloadCodec<T> codec, Object payload, EventOutput out, int version) {
+        codec.write((T) payload, out, version);
+    }
+
+    private byte[] toJson(Object payload) {
+        try {
+            return registry.objectMapper().writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize event payload", e);
+        }
+    }
+
+    private Object fromJson(byte[] json) {
+        try {
+            return registry.objectMapper().readValue(json, Object.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to deserialize event payload", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Kafka value deserializer for {@link DomainEvent} that accepts both the binary and the JSON format,
+ * detected from the first byte, so consumers keep working while producers switch format.
+ * Payloads of registered event types are returned as their model class in both cases.
+ */
+public class DomainEventDeserializer implements Deserializer<DomainEvent> {
+
+    private final PayloadRegistry registry;
+    private final BinaryDomainEventCodec binaryCodec;
+
+    public DomainEventDeserializer() {
+        this(PayloadRegistry.defaults());
+    }
+
+    public DomainEventDeserializer(PayloadRegistry registry) {
+        this.registry = registry;
+        this.binaryCodec = new BinaryDomainEventCodec(registry);
+    }
+
+    @Override
+    public DomainEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (BinaryDomainEventCodec.isBinary(data)) {
+                return binaryCodec.decode(data);
+            }
+            DomainEvent event = registry.objectMapper().readValue(data, DomainEvent.class);
+            event.setPayload(registry.toTyped(event.getEventType(), event.getPayload()));
+            return event;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Unable to deserialize event from topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for {@link DomainEvent}.
+ * Writes the compact binary format by default; set {@link #FORMAT_CONFIG} to {@code json} to keep
+ * producing the previous JSON messages. {@link DomainEventDeserializer} reads both.
+ */
+public class DomainEventSerializer implements Serializer<DomainEvent> {
+
+    public static final String FORMAT_CONFIG = "domain-event.format";
+    public static final String FORMAT_BINARY = "binary";
+    public static final String FORMAT_JSON = "json";
+
+    private final PayloadRegistry registry;
+    private final BinaryDomainEventCodec binaryCodec;
+    private boolean binary = true;
+
+    public DomainEventSerializer() {
+        this(PayloadRegistry.defaults());
+    }
+
+    public DomainEventSerializer(PayloadRegistry registry) {
+        this.registry = registry;
+        this.binaryCodec = new BinaryDomainEventCodec(registry);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null) {
+            binary = !FORMAT_JSON.equalsIgnoreCase(format.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, DomainEvent event) {
+        if (event == null) {
+            return null;
+        }
+        try {
+            return binary ? binaryCodec.encode(event) : registry.objectMapper().writeValueAsBytes(event);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new SerializationException("Unable to serialize event " + event.getEventId() + " for topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Reads the primitive encodings written by {@link EventOutput}.
+ * Throws {@link IllegalArgumentException} on truncated or malformed input.
+ */
+public final class EventInput {
+
+    private final byte[] data;
+    private int position;
+    private int limit;
+
+    public EventInput(byte[] data) {
+        this.data = data;
+        this.limit = data.length;
+    }
+
+    public int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    public byte[] readBytes(int length) {
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(data, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        require(length - 1);
+        String value = new String(data, position, length - 1, StandardCharsets.UTF_8);
+        position += length - 1;
+        return value;
+    }
+
+    public String readId() {
+        return switch (readByte()) {
+            case 0 -> null;
+            case 1 -> new UUID(readLong(), readLong()).toString();
+            case 2 -> readString();
+            default -> throw new IllegalArgumentException("Unknown id tag");
+        };
+    }
+
+    public Instant readInstant() {
+        if (readByte() == 0) {
+            return null;
+        }
+        long seconds = readSignedVarLong();
+        return Instant.ofEpochSecond(seconds, readVarInt());
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    /**
+     * Restricts reading to the next {@code length} bytes, e.g. a length-prefixed payload block.
+     *
+     * @return The previous limit, to be passed to {@link #endBlock(int)}.
+     */
+    public int beginBlock(int length) {
+        require(length);
+        int previousLimit = limit;
+        limit = position + length;
+        return previousLimit;
+    }
+
+    /**
+     * Skips whatever is left of the current block (fields added by a newer schema version) and restores the limit.
+     */
+    public void endBlock(int previousLimit) {
+        position = limit;
+        limit = previousLimit;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private void require(int length) {
+        if (length < 0 || position + length > limit) {
+            throw new IllegalArgumentException("Truncated binary event");
+        }
+    }
+}
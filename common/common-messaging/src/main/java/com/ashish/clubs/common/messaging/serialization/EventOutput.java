@@ -0,0 +1,138 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Growable byte buffer with the primitive encodings used by {@link BinaryDomainEventCodec}.
+ * Integers are written as (zig-zag) varints and strings as length-prefixed UTF-8; nullable values
+ * carry their null-ness in the length or a one byte tag, so absent fields cost a single byte.
+ */
+public final class EventOutput {
+
+    private byte[] buffer;
+    private int position;
+
+    public EventOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Writes a nullable string as varint (length + 1), 0 meaning null, followed by its UTF-8 bytes.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Writes a nullable identifier, as 16 raw bytes when it is a canonical UUID string (17 bytes instead of 37).
+     */
+    public void writeId(String value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        UUID uuid = parseUuid(value);
+        if (uuid != null) {
+            writeByte(1);
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        } else {
+            writeByte(2);
+            writeString(value);
+        }
+    }
+
+    public void writeInstant(Instant value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeSignedVarLong(value.getEpochSecond());
+        writeVarInt(value.getNano());
+    }
+
+    public <E extends Enum<E>> void writeEnum(E value) {
+        writeString(value != null ? value.name() : null);
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            // Only canonical lower-case form round-trips exactly
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
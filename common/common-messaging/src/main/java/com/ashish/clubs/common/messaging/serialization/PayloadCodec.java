@@ -0,0 +1,30 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+/**
+ * Binary encoding of one typed DomainEvent payload.
+ * <p>
+ * Schema evolution follows the event's {@code version} field: version N writes every field of version N-1
+ * followed by its new fields. Readers decode the fields of the version they understand and skip the rest,
+ * so producers and consumers can be upgraded independently.
+ *
+ * @param <T> The payload type.
+ */
+public interface PayloadCodec<T> {
+
+    Class<T> type();
+
+    /**
+     * @return The newest schema version this codec can write.
+     */
+    int latestVersion();
+
+    /**
+     * Writes the payload using the layout of the given version (at most {@link #latestVersion()}).
+     */
+    void write(T payload, EventOutput out, int version);
+
+    /**
+     * Reads a payload written with the given version (at most {@link #latestVersion()}).
+     */
+    T read(EventInput in, int version);
+}
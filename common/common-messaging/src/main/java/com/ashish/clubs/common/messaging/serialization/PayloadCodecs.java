@@ -0,0 +1,246 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import com.ashish.clubs.common.models.club.Club;
+import com.ashish.clubs.common.models.club.Membership;
+import com.ashish.clubs.common.models.club.MembershipRole;
+import com.ashish.clubs.common.models.club.MembershipStatus;
+import com.ashish.clubs.common.models.feed.Comment;
+import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.common.models.media.MediaFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload codecs for the models carried by the events the services publish today.
+ * Field order is part of the wire format: new fields go at the end, behind a version check.
+ */
+public final class PayloadCodecs {
+
+    public static final PayloadCodec<Club> CLUB = new ClubCodec();
+    public static final PayloadCodec<Membership> MEMBERSHIP = new MembershipCodec();
+    public static final PayloadCodec<Post> POST = new PostCodec();
+    public static final PayloadCodec<Comment> COMMENT = new CommentCodec();
+    public static final PayloadCodec<MediaFile> MEDIA_FILE = new MediaFileCodec();
+
+    private PayloadCodecs() {
+    }
+
+    private static final class ClubCodec implements PayloadCodec<Club> {
+
+        @Override
+        public Class<Club> type() {
+            return Club.class;
+        }
+
+        @Override
+        public int latestVersion() {
+            return 1;
+        }
+
+        @Override
+        public void write(Club club, EventOutput out, int version) {
+            out.writeId(club.getClubId());
+            out.writeString(club.getName());
+            out.writeString(club.getDescription());
+            out.writeId(club.getOwnerId());
+            out.writeString(club.getImageUrl());
+            out.writeString(club.getLocation());
+            out.writeString(club.getStatus());
+            out.writeInstant(club.getCreatedAt());
+            out.writeInstant(club.getUpdatedAt());
+        }
+
+        @Override
+        public Club read(EventInput in, int version) {
+            return Club.builder()
+                    .clubId(in.readId())
+                    .name(in.readString())
+                    .description(in.readString())
+                    .ownerId(in.readId())
+                    .imageUrl(in.readString())
+                    .location(in.readString())
+                    .status(in.readString())
+                    .createdAt(in.readInstant())
+                    .updatedAt(in.readInstant())
+                    .build();
+        }
+    }
+
+    private static final class MembershipCodec implements PayloadCodec<Membership> {
+
+        @Override
+        public Class<Membership> type() {
+            return Membership.class;
+        }
+
+        @Override
+        public int latestVersion() {
+            return 1;
+        }
+
+        @Override
+        public void write(Membership membership, EventOutput out, int version) {
+            out.writeId(membership.getMembershipId());
+            out.writeId(membership.getClubId());
+            out.writeId(membership.getUserId());
+            out.writeEnum(membership.getRole());
+            out.writeInstant(membership.getJoinDate());
+            out.writeInstant(membership.getEndDate());
+            out.writeEnum(membership.getStatus());
+        }
+
+        @Override
+        public Membership read(EventInput in, int version) {
+            return Membership.builder()
+                    .membershipId(in.readId())
+                    .clubId(in.readId())
+                    .userId(in.readId())
+                    .role(in.readEnum(MembershipRole.class))
+                    .joinDate(in.readInstant())
+                    .endDate(in.readInstant())
+                    .status(in.readEnum(MembershipStatus.class))
+                    .build();
+        }
+    }
+
+    private static final class PostCodec implements PayloadCodec<Post> {
+
+        @Override
+        public Class<Post> type() {
+            return Post.class;
+        }
+
+        @Override
+        public int latestVersion() {
+            return 2;
+        }
+
+        @Override
+        public void write(Post post, EventOutput out, int version) {
+            out.writeId(post.getPostId());
+            out.writeString(post.getContent());
+            out.writeId(post.getAuthorId());
+            out.writeInstant(post.getTimestamp());
+            List<String> mediaUrls = post.getMediaUrls();
+            if (mediaUrls == null) {
+                out.writeVarInt(0);
+            } else {
+                out.writeVarInt(mediaUrls.size() + 1);
+                mediaUrls.forEach(out::writeString);
+            }
+            out.writeVarInt(post.getLikeCount());
+            out.writeVarInt(post.getCommentCount());
+            if (version >= 2) {
+                out.writeId(post.getClubId());
+            }
+        }
+
+        @Override
+        public Post read(EventInput in, int version) {
+            Post.PostBuilder post = Post.builder()
+                    .postId(in.readId())
+                    .content(in.readString())
+                    .authorId(in.readId())
+                    .timestamp(in.readInstant());
+            int mediaCount = in.readVarInt();
+            if (mediaCount > 0) {
+                List<String> mediaUrls = new ArrayList<>(mediaCount - 1);
+                for (int i = 1; i < mediaCount; i++) {
+                    mediaUrls.add(in.readString());
+                }
+                post.mediaUrls(mediaUrls);
+            }
+            post.likeCount(in.readVarInt())
+                    .commentCount(in.readVarInt());
+            if (version >= 2) {
+                post.clubId(in.readId());
+            }
+            return post.build();
+        }
+    }
+
+    private static final class CommentCodec implements PayloadCodec<Comment> {
+
+        @Override
+        public Class<Comment> type() {
+            return Comment.class;
+        }
+
+        @Override
+        public int latestVersion() {
+            return 1;
+        }
+
+        @Override
+        public void write(Comment comment, EventOutput out, int version) {
+            out.writeId(comment.getCommentId());
+            out.writeId(comment.getPostId());
+            out.writeId(comment.getAuthorId());
+            out.writeString(comment.getContent());
+            out.writeInstant(comment.getTimestamp());
+        }
+
+        @Override
+        public Comment read(EventInput in, int version) {
+            return Comment.builder()
+                    .commentId(in.readId())
+                    .postId(in.readId())
+                    .authorId(in.readId())
+                    .content(in.readString())
+                    .timestamp(in.readInstant())
+                    .build();
+        }
+    }
+
+    private static final class MediaFileCodec implements PayloadCodec<MediaFile> {
+
+        @Override
+        public Class<MediaFile> type() {
+            return MediaFile.class;
+        }
+
+        @Override
+        public int latestVersion() {
+            return 1;
+        }
+
+        @Override
+        public void write(MediaFile file, EventOutput out, int version) {
+            out.writeId(file.getMediaId());
+            out.writeString(file.getOriginalFileName());
+            out.writeString(file.getStoredFileName());
+            out.writeString(file.getFileType());
+            out.writeVarLong(file.getFileSize());
+            out.writeString(file.getUrl());
+            out.writeId(file.getUploaderId());
+            out.writeInstant(file.getUploadTimestamp());
+            out.writeString(file.getAssociatedEntityType());
+            out.writeId(file.getAssociatedEntityId());
+            out.writeString(file.getFileName());
+            out.writeString(file.getMimeType());
+            out.writeInstant(file.getCreatedAt());
+            out.writeInstant(file.getUpdatedAt());
+        }
+
+        @Override
+        public MediaFile read(EventInput in, int version) {
+            return MediaFile.builder()
+                    .mediaId(in.readId())
+                    .originalFileName(in.readString())
+                    .storedFileName(in.readString())
+                    .fileType(in.readString())
+                    .fileSize(in.readVarLong())
+                    .url(in.readString())
+                    .uploaderId(in.readId())
+                    .uploadTimestamp(in.readInstant())
+                    .associatedEntityType(in.readString())
+                    .associatedEntityId(in.readId())
+                    .fileName(in.readString())
+                    .mimeType(in.readString())
+                    .createdAt(in.readInstant())
+                    .updatedAt(in.readInstant())
+                    .build();
+        }
+    }
+}
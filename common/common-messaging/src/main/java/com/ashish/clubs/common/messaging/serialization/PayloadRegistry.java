@@ -0,0 +1,101 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import com.ashish.clubs.common.models.shared.EventType;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Maps each {@link EventType} to the typed payload it carries and the codec that encodes it.
+ * Event types without a registration keep an untyped payload (JSON-encoded inside binary events).
+ */
+public final class PayloadRegistry {
+
+    private static final PayloadRegistry DEFAULTS = createDefaults();
+
+    private final Map<EventType, PayloadCodec<?>> codecs = new EnumMap<>(EventType.class);
+    private final ObjectMapper objectMapper;
+
+    public PayloadRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return The shared registry with the payload types of all events published by the services.
+     */
+    public static PayloadRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    public PayloadRegistry register(PayloadCodec<?> codec, EventType... eventTypes) {
+        for (EventType eventType : eventTypes) {
+            codecs.put(eventType, codec);
+        }
+        return this;
+    }
+
+    /**
+     * @return The codec for the event type, or null if its payload is untyped.
+     */
+    public PayloadCodec<?> codecFor(String eventType) {
+        EventType type = parse(eventType);
+        return type != null ? codecs.get(type) : null;
+    }
+
+    /**
+     * Converts a loosely typed payload (e.g. the Map produced by JSON deserialization) to the registered type.
+     *
+     * @return The typed payload, or the payload unchanged if the event type is not registered or conversion fails.
+     */
+    public Object toTyped(String eventType, Object payload) {
+        PayloadCodec<?> codec = codecFor(eventType);
+        if (codec == null || payload == null || codec.type().isInstance(payload)) {
+            return payload;
+        }
+        try {
+            return objectMapper.convertValue(payload, codec.type());
+        } catch (IllegalArgumentException e) {
+            return payload;
+        }
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    private static EventType parse(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
+        try {
+            return EventType.valueOf(eventType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static PayloadRegistry createDefaults() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        return new PayloadRegistry(mapper)
+                .register(PayloadCodecs.CLUB,
+                        EventType.CLUB_CREATED, EventType.CLUB_UPDATED, EventType.CLUB_DELETED)
+                .register(PayloadCodecs.MEMBERSHIP,
+                        EventType.CLUB_MEMBERSHIP_REQUESTED, EventType.CLUB_MEMBERSHIP_APPROVED,
+                        EventType.CLUB_MEMBERSHIP_REJECTED, EventType.CLUB_MEMBER_LEFT, EventType.CLUB_MEMBER_BANNED)
+                .register(PayloadCodecs.POST,
+                        EventType.POST_CREATED, EventType.POST_UPDATED, EventType.POST_DELETED,
+                        EventType.POST_LIKED, EventType.POST_UNLIKED)
+                .register(PayloadCodecs.COMMENT,
+                        EventType.COMMENT_CREATED, EventType.COMMENT_UPDATED, EventType.COMMENT_DELETED)
+                .register(PayloadCodecs.MEDIA_FILE,
+                        EventType.MEDIA_UPLOADED, EventType.MEDIA_DELETED);
+    }
+}
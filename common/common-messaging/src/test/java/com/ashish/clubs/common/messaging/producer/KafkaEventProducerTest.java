@@ -0,0 +1,163 @@
+package com.ashish.clubs.common.messaging.producer;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaEventProducerTest {
+
+    private static final String TOPIC = "test-events";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KafkaEventProducer producer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (producer != null) {
+            producer.shutdown();
+        }
+    }
+
+    @Test
+    void awaitAckCompletesWhenTheBrokerAcknowledges() {
+        MockProducer<String, DomainEvent> mockProducer = mockProducer(true);
+        producer = newProducer(mockProducer, 10);
+
+        StepVerifier.create(producer.publishEvent(TOPIC, event("post-1"), DeliveryMode.AWAIT_ACK))
+                .verifyComplete();
+
+        assertThat(mockProducer.history()).hasSize(1);
+        assertThat(mockProducer.history().get(0).key()).isEqualTo("POST:post-1"); // EventKeyStrategy.BY_ENTITY
+        assertThat(count("published")).isEqualTo(1);
+    }
+
+    @Test
+    void awaitAckPropagatesSendFailures() {
+        MockProducer<String, DomainEvent> mockProducer = mockProducer(false);
+        producer = newProducer(mockProducer, 10);
+
+        StepVerifier.create(producer.publishEvent(TOPIC, event("post-1"), DeliveryMode.AWAIT_ACK))
+                .then(() -> mockProducer.errorNext(new RuntimeException("broker unavailable")))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .hasMessage("Event publishing failed")
+                        .hasRootCauseMessage("broker unavailable"))
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(count("failed")).isEqualTo(1);
+        assertThat(count("published")).isZero();
+    }
+
+    @Test
+    void awaitEnqueueRejectsWhenTheQueueIsFull() {
+        producer = newProducer(mockProducer(true), 1); // Drainer not started, so the queue stays full
+
+        StepVerifier.create(producer.publishEvent(TOPIC, event("post-1"), DeliveryMode.AWAIT_ENQUEUE))
+                .verifyComplete();
+        StepVerifier.create(producer.publishEvent(TOPIC, event("post-2"), DeliveryMode.AWAIT_ENQUEUE))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("Event publish queue is full"))
+                .verify();
+
+        assertThat(producer.queuedEvents()).isEqualTo(1);
+        assertThat(count("enqueued")).isEqualTo(1);
+        assertThat(count("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void bestEffortDropsAndCountsWhenTheQueueIsFull() {
+        producer = newProducer(mockProducer(true), 1);
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(producer.publishEvent(TOPIC, event("post-" + i), DeliveryMode.BEST_EFFORT))
+                    .verifyComplete();
+        }
+
+        assertThat(producer.queuedEvents()).isEqualTo(1);
+        assertThat(count("enqueued")).isEqualTo(1);
+        assertThat(count("dropped")).isEqualTo(2);
+        assertThat(count("rejected")).isZero();
+    }
+
+    @Test
+    void shutdownSendsTheQueuedEventsAndFlushes() throws InterruptedException {
+        MockProducer<String, DomainEvent> mockProducer = mockProducer(true);
+        producer = newProducer(mockProducer, 100);
+        for (int i = 0; i < 50; i++) {
+            StepVerifier.create(producer.publishEvent(TOPIC, event("post-" + i), DeliveryMode.AWAIT_ENQUEUE))
+                    .verifyComplete();
+        }
+
+        producer.startDrainer();
+        producer.shutdown();
+
+        assertThat(producer.queuedEvents()).isZero();
+        assertThat(mockProducer.history()).hasSize(50);
+        assertThat(mockProducer.flushed()).isTrue();
+        assertThat(count("published")).isEqualTo(50);
+
+        // No longer accepting queued events
+        StepVerifier.create(producer.publishEvent(TOPIC, event("late"), DeliveryMode.AWAIT_ENQUEUE))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    private KafkaEventProducer newProducer(Producer<String, DomainEvent> mockProducer, int queueCapacity) {
+        ProducerFactory<String, DomainEvent> producerFactory = () -> mockProducer;
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        return new KafkaEventProducer(
+                new KafkaTemplate<>(producerFactory),
+                beanFactory.getBeanProvider(MeterRegistry.class),
+                beanFactory.getBeanProvider(EventKeyStrategy.class),
+                queueCapacity,
+                100,
+                5000);
+    }
+
+    /**
+     * A MockProducer that survives KafkaTemplate closing it after each send, as the
+     * DefaultKafkaProducerFactory's shared producer would.
+     */
+    private static MockProducer<String, DomainEvent> mockProducer(boolean autoComplete) {
+        return new MockProducer<>(autoComplete, new StringSerializer(), (topic, event) -> new byte[0]) {
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("kafka.producer.events").tag("result", result).counter().count();
+    }
+
+    private static DomainEvent event(String entityId) {
+        return DomainEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("POST_LIKED")
+                .sourceService("test")
+                .entityId(entityId)
+                .entityType("POST")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.ashish.clubs.common.messaging.serialization;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.models.feed.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary vs. JSON {@link DomainEvent} wire format, through the Kafka serializer and deserializer.
+ * <p>
+ * {@code typed} is a POST_CREATED event, whose Post payload has a binary codec; {@code untyped} carries a
+ * map payload that the binary format falls back to embedding as JSON. The encoded size of each variant is
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainEventCodecBenchmark {
+
+    private static final String TOPIC = "feed-events";
+
+    @Param({"typed", "untyped"})
+    public String payload;
+
+    private final DomainEventSerializer binarySerializer = new DomainEventSerializer();
+    private final DomainEventSerializer jsonSerializer = new DomainEventSerializer();
+    private final DomainEventDeserializer deserializer = new DomainEventDeserializer();
+
+    private DomainEvent event;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer.configure(Map.of(DomainEventSerializer.FORMAT_CONFIG, DomainEventSerializer.FORMAT_JSON), false);
+        event = "typed".equals(payload) ? postCreated() : untyped();
+        binary = binarySerializer.serialize(TOPIC, event);
+        json = jsonSerializer.serialize(TOPIC, event);
+        System.out.printf("%n%s event: binary %d bytes, JSON %d bytes (%.0f%%)%n",
+                payload, binary.length, json.length, 100.0 * binary.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public DomainEvent decodeBinary() {
+        return deserializer.deserialize(TOPIC, binary);
+    }
+
+    @Benchmark
+    public DomainEvent decodeJson() {
+        return deserializer.deserialize(TOPIC, json);
+    }
+
+    private static DomainEvent postCreated() {
+        Post post = Post.builder()
+                .postId(UUID.randomUUID().toString())
+                .clubId(UUID.randomUUID().toString())
+                .authorId(UUID.randomUUID().toString())
+                .content("Club meetup moved to Saturday at 10am, bring your own boards. See you all at the park!")
+                .timestamp(Instant.now())
+                .mediaUrls(List.of("/api/v1/media/" + UUID.randomUUID() + "/content"))
+                .likeCount(12)
+                .commentCount(3)
+                .build();
+        return envelope("POST_CREATED", post.getPostId(), "POST", post.getAuthorId(), post);
+    }
+
+    private static DomainEvent untyped() {
+        Map<String, Object> payload = Map.of(
+                "searchTerm", "skateboarding",
+                "resultCount", 42,
+                "durationMs", 17);
+        return envelope("SEARCH_PERFORMED", UUID.randomUUID().toString(), "SEARCH", UUID.randomUUID().toString(), payload);
+    }
+
+    private static DomainEvent envelope(String eventType, String entityId, String entityType, String actorId, Object payload) {
+        return DomainEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .sourceService("feed-service")
+                .entityId(entityId)
+                .entityType(entityType)
+                .actorId(actorId)
+                .payload(payload)
+                .timestamp(Instant.now())
+                .version(2)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DomainEventCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ashish.clubs.common.models.feed;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,16 +14,19 @@ import java.util.List;
 
 /**
  * Represents a post in the feed.
+ * Null fields, e.g. the content of a summary projection, are left out of the JSON.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Post implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
     private String postId; // UUID
+    private String clubId; // Club the post was published in, null for posts outside any club
     @NotBlank
     private String content;
     private String authorId; // userId of the author
@@ -0,0 +1,27 @@
+package com.ashish.clubs.common.models.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Short-lived URL through which the client transfers a media file's bytes directly with the object store.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresignedUrl implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private String mediaId; // UUID of the media file the URL reads or writes
+    private String method; // PUT or GET
+    private String url;
+    private Instant expiresAt;
+}
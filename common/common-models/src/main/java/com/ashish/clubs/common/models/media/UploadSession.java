@@ -0,0 +1,49 @@
+package com.ashish.clubs.common.models.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State of a resumable upload, as returned to the client that resumes it.
+ * The file is sent in chunks of {@code chunkSize} bytes (the last one may be shorter), in any order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private String uploadId; // UUID, also the mediaId of the completed file
+    private String fileName;
+    private String mimeType;
+    private long totalSize; // in bytes
+    private long chunkSize; // in bytes
+    private int chunkCount;
+    private List<Integer> receivedChunks; // Indexes of the chunks stored so far, ascending
+    private List<ByteRange> receivedRanges; // The same, as merged byte ranges
+    private String status; // IN_PROGRESS, COMPLETING, COMPLETED, ABORTED
+    private Instant expiresAt;
+
+    /**
+     * Byte range of the file, both ends inclusive as in HTTP Range headers.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ByteRange implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private long start;
+        private long end;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.List;
 /**
  * A generic response wrapper for paginated lists of data.
  * Useful for consistent API responses across services when fetching collections.
+ * Cursor-paginated endpoints fill {@code nextCursor}/{@code hasNext} instead of page numbers and totals.
  *
  * @param <T> The type of content in the list.
  */
@@ -30,4 +31,6 @@ public class PaginatedResponse<T> implements Serializable {
     private int totalPages;         // Total number of pages
     private boolean last;           // True if this is the last page
     private boolean first;          // True if this is the first page
+    private String nextCursor;      // Opaque cursor for the next page (cursor-paginated endpoints), null on the last page
+    private boolean hasNext;        // True if more items follow this page
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.ashish.clubs.common.security;
+
+import com.ashish.clubs.common.security.jwt.JwtPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * The user acting on the current request, as authenticated by {@link JwtAuthFilter}.
+ * Endpoints take the acting user from here rather than from request parameters or bodies, which the
+ * caller controls.
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    /**
+     * @return Mono emitting the verified token's principal, or empty if the request is not authenticated
+     */
+    public static Mono<JwtPrincipal> principal() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .map(Authentication::getDetails)
+                .ofType(JwtPrincipal.class);
+    }
+
+    /**
+     * @return Mono emitting the acting user's id, or empty if the request is not authenticated or its
+     * token predates the user id claim
+     */
+    public static Mono<String> userId() {
+        return principal().mapNotNull(JwtPrincipal::userId);
+    }
+}
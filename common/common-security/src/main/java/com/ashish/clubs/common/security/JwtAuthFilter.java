@@ -1,9 +1,18 @@
 package com.ashish.clubs.common.security;
 
+import com.ashish.clubs.common.security.identity.IdentityHeaderSigner;
+import com.ashish.clubs.common.security.jwt.JwtPrincipal;
 import com.ashish.clubs.common.security.jwt.JwtUtil;
-import lombok.RequiredArgsConstructor;
+import com.ashish.clubs.common.security.jwt.TokenDenyList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder; // Reactive context
@@ -12,49 +21,125 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * A common JWT authentication filter that can be used by services.
  * It extracts the JWT token, validates it, and sets the Spring Security context.
+ * <p>
+ * In stateless mode (the default) the Authentication is built straight from the verified token's
+ * roles claim, so no user lookup is made per request. Stateful mode loads the user through the
+ * service's {@link ReactiveUserDetailsService} instead, e.g. to pick up role changes immediately.
+ * <p>
+ * Requests routed through the API Gateway carry signed identity headers for the token the gateway
+ * already verified. When their signature checks out they are used as-is and the JWT is not parsed again.
+ * <p>
+ * Runs ahead of the Spring Security filter chain, so that its authorization and access-denied handling
+ * (403 rather than 401 for an authenticated caller) see the authentication set here.
  */
+@Slf4j
 @Component
-@RequiredArgsConstructor
+@Order(JwtAuthFilter.ORDER)
 public class JwtAuthFilter implements WebFilter {
 
+    public static final int ORDER = -101; // Spring Security's WebFilterChainProxy runs at -100
+
     private final JwtUtil jwtUtil;
-    private final ReactiveUserDetailsService reactiveUserDetailsService; // This will be provided by specific services
+    private final ReactiveUserDetailsService reactiveUserDetailsService; // Provided by specific services, only needed in stateful mode
+    private final TokenDenyList tokenDenyList;
+    private final IdentityHeaderSigner identityHeaderSigner;
+    private final boolean stateless;
+    private final boolean revocationCheckEnabled;
+
+    public JwtAuthFilter(JwtUtil jwtUtil,
+                         ObjectProvider<ReactiveUserDetailsService> reactiveUserDetailsService,
+                         TokenDenyList tokenDenyList,
+                         IdentityHeaderSigner identityHeaderSigner,
+                         @Value("${application.security.jwt.stateless:true}") boolean stateless,
+                         @Value("${application.security.jwt.revocation.enabled:false}") boolean revocationCheckEnabled) {
+        this.jwtUtil = jwtUtil;
+        this.reactiveUserDetailsService = reactiveUserDetailsService.getIfAvailable();
+        this.tokenDenyList = tokenDenyList;
+        this.identityHeaderSigner = identityHeaderSigner;
+        this.revocationCheckEnabled = revocationCheckEnabled;
+        if (!stateless && this.reactiveUserDetailsService == null) {
+            log.warn("Stateful JWT authentication requested but no ReactiveUserDetailsService is available, falling back to stateless mode");
+        }
+        this.stateless = stateless || this.reactiveUserDetailsService == null;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        final String jwt;
-        final String username;
+        final HttpHeaders headers = exchange.getRequest().getHeaders();
+
+        // Identity already verified by the gateway, trust the signed headers instead of re-parsing the token
+        Optional<JwtPrincipal> forwarded = identityHeaderSigner.readHeaders(headers);
+        if (forwarded.isPresent()) {
+            return authenticate(exchange, chain, Mono.just(forwarded.get()));
+        }
+
+        final String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
 
         if (authHeader == null || !authHeader.startsWith(SecurityConstants.JWT_TOKEN_PREFIX)) {
             return chain.filter(exchange);
         }
 
-        jwt = authHeader.substring(SecurityConstants.JWT_TOKEN_PREFIX.length());
-        username = jwtUtil.extractUsername(jwt);
-
-        if (username != null) {
-
-            return reactiveUserDetailsService.findByUsername(username)
-                    .flatMap(userDetails -> {
-                        if (Boolean.TRUE.equals(jwtUtil.validateToken(jwt, userDetails).block())) {
-                            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null, // credentials are null as token is already validated
-                                    userDetails.getAuthorities()
-                            );
-                            // Set authentication in reactive context
-                            return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
-                        }
-                        return chain.filter(exchange); // Token invalid, continue chain
-                    })
-                    .switchIfEmpty(chain.filter(exchange)); // User not found, continue chain
+        final String jwt = authHeader.substring(SecurityConstants.JWT_TOKEN_PREFIX.length());
+
+        // The token is parsed and verified exactly once; expiry is enforced by the parser
+        return authenticate(exchange, chain, jwtUtil.verify(jwt));
+    }
+
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain, Mono<JwtPrincipal> verifiedPrincipal) {
+        Mono<Authentication> authentication = verifiedPrincipal
+                .filter(principal -> !isRevoked(principal))
+                .flatMap(principal -> stateless ? Mono.just(fromClaims(principal)) : fromUserDetails(principal))
+                .onErrorResume(e -> Mono.empty()); // Invalid token or unknown user, continue unauthenticated
+
+        return authentication
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authToken -> authToken
+                        // Set authentication in reactive context
+                        .map(token -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(token)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private boolean isRevoked(JwtPrincipal principal) {
+        if (revocationCheckEnabled && tokenDenyList.isRevoked(principal.tokenId())) {
+            log.debug("Rejected revoked token {} for user {}", principal.tokenId(), principal.subject());
+            return true;
         }
-        return chain.filter(exchange); // No username, continue chain
+        return false;
+    }
+
+    private Authentication fromClaims(JwtPrincipal principal) {
+        List<GrantedAuthority> authorities = principal.roles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                principal.subject(),
+                null, // credentials are null as token is already validated
+                authorities
+        );
+        authentication.setDetails(principal); // Read by CurrentUser
+        return authentication;
+    }
+
+    private Mono<Authentication> fromUserDetails(JwtPrincipal principal) {
+        return reactiveUserDetailsService.findByUsername(principal.subject())
+                .filter(userDetails -> principal.subject().equals(userDetails.getUsername())
+                        && !principal.isExpired(Instant.now()))
+                .map(userDetails -> {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null, // credentials are null as token is already validated
+                            userDetails.getAuthorities()
+                    );
+                    authentication.setDetails(principal); // Read by CurrentUser
+                    return authentication;
+                });
     }
 }
@@ -5,6 +5,29 @@ public final class SecurityConstants {
     public static final String JWT_TOKEN_PREFIX = "Bearer ";
     public static final String JWT_HEADER_STRING = "Authorization";
 
+    // Identity headers added by the API Gateway after it has verified the JWT.
+    // Downstream services trust them only when the HMAC signature header verifies.
+    public static final String IDENTITY_USER_HEADER = "X-Authenticated-User";
+    public static final String IDENTITY_USER_ID_HEADER = "X-Authenticated-User-Id";
+    public static final String IDENTITY_ROLES_HEADER = "X-Authenticated-Roles";
+    public static final String IDENTITY_TOKEN_ID_HEADER = "X-Authenticated-Token-Id";
+    public static final String IDENTITY_EXPIRES_HEADER = "X-Authenticated-Expires";
+    public static final String IDENTITY_SIGNATURE_HEADER = "X-Authenticated-Signature";
+
+    public static final String[] IDENTITY_HEADERS = {
+            IDENTITY_USER_HEADER,
+            IDENTITY_USER_ID_HEADER,
+            IDENTITY_ROLES_HEADER,
+            IDENTITY_TOKEN_ID_HEADER,
+            IDENTITY_EXPIRES_HEADER,
+            IDENTITY_SIGNATURE_HEADER
+    };
+
+    // Access token revocations, written by auth-service on logout and applied by every TokenDenyList.
+    // The key holds the token's expiry (epoch seconds) and lives until then; the channel carries "jti|expiry".
+    public static final String REVOKED_TOKEN_KEY_PREFIX = "jwt:revoked:";
+    public static final String TOKEN_REVOCATION_CHANNEL = "jwt:revocations";
+
     // Public endpoints (e.g., for API Gateway to allow access without authentication)
     public static final String[] PUBLIC_ENDPOINTS = {
             "/api/v1/auth/**",
@@ -0,0 +1,150 @@
+package com.ashish.clubs.common.security.identity;
+
+import com.ashish.clubs.common.security.SecurityConstants;
+import com.ashish.clubs.common.security.jwt.JwtPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Signs and verifies the internal identity headers the API Gateway forwards once it has verified a JWT.
+ * The headers carry the subject, user id, roles, token id and expiry; the HMAC-SHA256 signature over them
+ * (keyed by a secret shared only between the gateway and the services) lets downstream services
+ * trust the identity without parsing and verifying the JWT again.
+ * Signing is disabled when no secret is configured, in which case services fall back to the JWT.
+ */
+@Slf4j
+@Component
+public class IdentityHeaderSigner {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec signingKey;
+    private final ThreadLocal<Mac> macs; // Mac is not thread-safe, one instance per (event loop) thread
+
+    public IdentityHeaderSigner(@Value("${application.security.identity.secret-key:}") String secretKey) {
+        if (secretKey == null || secretKey.isBlank()) {
+            this.signingKey = null;
+            this.macs = null;
+            log.info("No identity header secret configured, gateway identity propagation is disabled");
+            return;
+        }
+        this.signingKey = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public boolean isEnabled() {
+        return signingKey != null;
+    }
+
+    /**
+     * Writes the identity headers (and their signature) for a verified principal,
+     * replacing any identity headers already present on the request.
+     *
+     * @param principal The principal verified from the JWT.
+     * @param headers   The headers of the request forwarded downstream.
+     */
+    public void writeHeaders(JwtPrincipal principal, HttpHeaders headers) {
+        removeHeaders(headers);
+        if (!isEnabled()) {
+            return;
+        }
+        String roles = joinRoles(principal.roles());
+        String expires = principal.expiresAt() != null ? Long.toString(principal.expiresAt().getEpochSecond()) : "";
+        String tokenId = principal.tokenId() != null ? principal.tokenId() : "";
+        String userId = principal.userId() != null ? principal.userId() : "";
+
+        headers.set(SecurityConstants.IDENTITY_USER_HEADER, principal.subject());
+        headers.set(SecurityConstants.IDENTITY_USER_ID_HEADER, userId);
+        headers.set(SecurityConstants.IDENTITY_ROLES_HEADER, roles);
+        headers.set(SecurityConstants.IDENTITY_TOKEN_ID_HEADER, tokenId);
+        headers.set(SecurityConstants.IDENTITY_EXPIRES_HEADER, expires);
+        headers.set(SecurityConstants.IDENTITY_SIGNATURE_HEADER, sign(principal.subject(), userId, roles, tokenId, expires));
+    }
+
+    /**
+     * Removes all identity headers, e.g. to drop values supplied by an external client.
+     */
+    public void removeHeaders(HttpHeaders headers) {
+        for (String header : SecurityConstants.IDENTITY_HEADERS) {
+            headers.remove(header);
+        }
+    }
+
+    /**
+     * Reads and verifies the identity headers of an incoming request.
+     *
+     * @param headers The request headers.
+     * @return The forwarded principal, or empty if the headers are absent, unsigned, tampered with or expired.
+     */
+    public Optional<JwtPrincipal> readHeaders(HttpHeaders headers) {
+        String signature = headers.getFirst(SecurityConstants.IDENTITY_SIGNATURE_HEADER);
+        String subject = headers.getFirst(SecurityConstants.IDENTITY_USER_HEADER);
+        if (!isEnabled() || signature == null || subject == null) {
+            return Optional.empty();
+        }
+        String userId = valueOrEmpty(headers.getFirst(SecurityConstants.IDENTITY_USER_ID_HEADER));
+        String roles = valueOrEmpty(headers.getFirst(SecurityConstants.IDENTITY_ROLES_HEADER));
+        String tokenId = valueOrEmpty(headers.getFirst(SecurityConstants.IDENTITY_TOKEN_ID_HEADER));
+        String expires = valueOrEmpty(headers.getFirst(SecurityConstants.IDENTITY_EXPIRES_HEADER));
+
+        byte[] expected = sign(subject, userId, roles, tokenId, expires).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+            log.warn("Rejected identity headers with an invalid signature for user {}", subject);
+            return Optional.empty();
+        }
+
+        Instant expiresAt = expires.isEmpty() ? null : Instant.ofEpochSecond(Long.parseLong(expires));
+        JwtPrincipal principal = new JwtPrincipal(
+                subject,
+                userId.isEmpty() ? null : userId,
+                roles.isEmpty() ? Set.of() : Set.of(roles.split(",")),
+                tokenId.isEmpty() ? null : tokenId,
+                null,
+                expiresAt
+        );
+        if (principal.isExpired(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(principal);
+    }
+
+    private String sign(String subject, String userId, String roles, String tokenId, String expires) {
+        // Newline-separated canonical form; none of the values can contain a newline
+        String canonical = String.join("\n", subject, userId, roles, tokenId, expires);
+        byte[] hmac = macs.get().doFinal(canonical.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac);
+    }
+
+    private static String joinRoles(Set<String> roles) {
+        // Sorted so the signature does not depend on set iteration order
+        return new TreeSet<>(roles).stream().collect(Collectors.joining(","));
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + HMAC_ALGORITHM + " for identity headers", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ashish.clubs.common.security.jwt;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Immutable view of a verified JWT.
+ * Carries every claim the services need (subject, roles, token id and validity window) so a token
+ * only has to be parsed once per request, no matter how many of its claims are used afterwards.
+ *
+ * @param subject   The token subject (the user's email).
+ * @param userId    The "uid" claim, the user's id; null for tokens issued before it was added.
+ * @param roles     Roles from the "roles" claim; empty for refresh tokens.
+ * @param tokenId   The "jti" claim, used for revocation; may be null for tokens issued before it was added.
+ * @param issuedAt  The "iat" claim.
+ * @param expiresAt The "exp" claim.
+ */
+public record JwtPrincipal(String subject, String userId, Set<String> roles, String tokenId, Instant issuedAt, Instant expiresAt) {
+
+    public JwtPrincipal {
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
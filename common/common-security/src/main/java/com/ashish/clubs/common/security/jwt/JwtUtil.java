@@ -4,12 +4,14 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.*;
 import java.util.function.Function;
 
@@ -27,15 +29,32 @@ public class JwtUtil {
     @Value("${application.security.jwt.refresh-token.expiration}")
     private long refreshExpiration; // in milliseconds
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String USER_ID_CLAIM = "uid";
+
+    private SecretKey signInKey;
+    private JwtParser jwtParser; // Immutable and thread-safe, so one instance serves every request
+
     /**
-     * Decodes the base64 secret key and generates an HMAC-SHA256 SecretKey.
-     * This key is used for signing and verifying JWTs.
+     * Decodes the base64 secret key once and builds the HMAC-SHA256 SecretKey and the verifying parser.
+     * Both are reused for every sign and verify call instead of being rebuilt per token.
+     */
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
+    /**
+     * Returns the precomputed HMAC-SHA256 SecretKey used for signing and verifying JWTs.
      *
      * @return SecretKey for JWT operations.
      */
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     // ---- Token Generation -----
@@ -49,12 +68,20 @@ public class JwtUtil {
      * @return A Mono emitting the generated JWT string.
      */
     public Mono<String> generateAccessToken(String username, Set<String> roles) {
-        return buildToken(username, roles, jwtExpiration);
+        return generateAccessToken(username, null, roles);
+    }
+
+    /**
+     * Generates an access token that also carries the user's id, so services can tell who is acting
+     * without looking the user up.
+     */
+    public Mono<String> generateAccessToken(String username, String userId, Set<String> roles) {
+        return buildToken(username, userId, roles, jwtExpiration);
     }
 
     public Mono<String> generateRefreshToken(String username) {
         // Refresh token typically has fewer claims, often just subject (username) or a JTI
-        return buildToken(username, Set.of(), refreshExpiration); // No roles for refresh token usually
+        return buildToken(username, null, Set.of(), refreshExpiration); // No roles for refresh token usually
     }
 
     /**
@@ -62,15 +89,19 @@ public class JwtUtil {
      * This method is internal and used by `generateAccessToken`.
      *
      * @param username The subject of the token.
+     * @param userId The user's id, or null to leave the claim out.
      * @param roles Roles to be included in the claims (typically for access tokens).
      * @param expirationTime The validity duration of the token in milliseconds.
      * @return A Mono emitting the compact JWT string.
      */
-    private Mono<String> buildToken(String username, Set<String> roles, long expirationTime) {
+    private Mono<String> buildToken(String username, String userId, Set<String> roles, long expirationTime) {
         return Mono.fromCallable(() -> {
             Map<String, Object> claims = new HashMap<>();
             if (roles != null && !roles.isEmpty()) {
-                claims.put("roles", roles); // Store roles in claims for Access Token
+                claims.put(ROLES_CLAIM, roles); // Store roles in claims for Access Token
+            }
+            if (userId != null) {
+                claims.put(USER_ID_CLAIM, userId);
             }
 
             Date now = new Date();
@@ -79,6 +110,7 @@ public class JwtUtil {
             return Jwts.builder()
                     .claims(claims) // Use claims() for newer JJWT versions
                     .subject(username)
+                    .id(UUID.randomUUID().toString()) // jti, lets a single token be revoked
                     .issuedAt(now)
                     .expiration(expiryDate)
                     .signWith(getSignInKey(), Jwts.SIG.HS256) // Use Jwts.SIG for newer JJWT versions
@@ -86,6 +118,52 @@ public class JwtUtil {
         });
     }
 
+    // --- Token Verification ---
+
+    /**
+     * Verifies a token and returns all the claims services need in a single parse.
+     * Verification is pure CPU work on a precomputed key and parser, so this never blocks
+     * and is safe to subscribe to on a Netty event loop.
+     *
+     * @param token The JWT string.
+     * @return A Mono emitting the verified principal, or an error (e.g. ExpiredJwtException,
+     * SignatureException, MalformedJwtException) if the token is not valid.
+     */
+    public Mono<JwtPrincipal> verify(String token) {
+        return Mono.fromCallable(() -> parsePrincipal(token));
+    }
+
+    /**
+     * Synchronous variant of {@link #verify(String)} for callers that are not reactive.
+     *
+     * @param token The JWT string.
+     * @return The verified principal.
+     * @throws JwtException if the token is expired, tampered with or malformed.
+     */
+    public JwtPrincipal parsePrincipal(String token) {
+        return toPrincipal(parseClaims(token));
+    }
+
+    @SuppressWarnings("unchecked")
+    private JwtPrincipal toPrincipal(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        Set<String> roleSet = roles instanceof Collection<?> collection
+                ? new HashSet<>((Collection<String>) collection)
+                : Set.of();
+        return new JwtPrincipal(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, String.class),
+                roleSet,
+                claims.getId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+
+    private Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
     // --- Token Validation and Extraction ---
 
     /**
@@ -98,8 +176,8 @@ public class JwtUtil {
      */
     public Mono<Boolean> validateToken(String token, UserDetails userDetails) {
         return Mono.fromCallable(() -> {
-                    final String username = extractUsername(token);
-                    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+                    final JwtPrincipal principal = parsePrincipal(token);
+                    return (principal.subject().equals(userDetails.getUsername()) && !principal.isExpired(Instant.now()));
                 })
                 .onErrorReturn(false); // If any exception during extraction/validation, return false
     }
@@ -113,13 +191,7 @@ public class JwtUtil {
      * Emits an error Mono if parsing fails (e.g., invalid signature, expired token).
      */
     public Mono<Claims> extractAllClaims(String token) {
-        return Mono.fromCallable(() -> {
-            return Jwts.parser()
-                    .verifyWith((SecretKey) getSignInKey()) // Cast to SecretKey
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        }).onErrorResume(e -> {
+        return Mono.fromCallable(() -> parseClaims(token)).onErrorResume(e -> {
             // Log specific JWT exceptions for better debugging
             if (e instanceof SignatureException) {
                 System.err.println("Invalid JWT signature: " + e.getMessage());
@@ -139,8 +211,8 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        return extractAllClaims(token).map(claimsResolver).block(); // Blocking call here, needs care if used directly
-        // Better to chain reactively: extractAllClaims().map(claimsResolver)
+        // Parses directly instead of blocking on extractAllClaims(), which is illegal on a Netty event loop
+        return claimsResolver.apply(parseClaims(token));
     }
 
     /**
@@ -156,7 +228,7 @@ public class JwtUtil {
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject); // This will block if not called reactively
+        return extractClaim(token, Claims::getSubject);
     }
 
     /**
@@ -170,7 +242,7 @@ public class JwtUtil {
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration); // This will block if not called reactively
+        return extractClaim(token, Claims::getExpiration);
     }
 
     /**
@@ -184,7 +256,7 @@ public class JwtUtil {
     }
 
     private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date()); // This will block
+        return extractExpiration(token).before(new Date());
     }
 
     /**
@@ -197,11 +269,8 @@ public class JwtUtil {
         return extractExpirationReactive(token).map(expirationDate -> expirationDate.before(new Date()));
     }
 
-    @SuppressWarnings("unchecked")
     public Set<String> getRolesFromToken(String token) {
-        // Corrected: Directly cast to List and then stream
-        List<String> rolesList = extractClaim(token, claims -> (List<String>) claims.get("roles"));
-        return new HashSet<>(rolesList); // Convert List to Set
+        return parsePrincipal(token).roles();
     }
 
     /**
@@ -214,7 +283,7 @@ public class JwtUtil {
     @SuppressWarnings("unchecked")
     public Mono<Set<String>> getRolesFromTokenReactive(String token) {
     // Corrected: Directly cast to List and then map to a Set
-        return extractClaimReactive(token, claims -> (List<String>) claims.get("roles"))
+        return extractClaimReactive(token, claims -> (List<String>) claims.get(ROLES_CLAIM))
                 .map(HashSet::new); // Convert List<String> to HashSet<String>
     }
 
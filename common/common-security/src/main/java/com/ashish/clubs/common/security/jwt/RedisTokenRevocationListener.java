@@ -0,0 +1,95 @@
+package com.ashish.clubs.common.security.jwt;
+
+import com.ashish.clubs.common.security.SecurityConstants;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Applies the access token revocations published by auth-service to this instance's {@link TokenDenyList}.
+ * <p>
+ * On startup the revocations still in Redis are loaded, then new ones are received on
+ * {@link SecurityConstants#TOKEN_REVOCATION_CHANNEL}. A revocation published while the subscription is down
+ * is picked up again by the next resubscription, which reloads the keys first.
+ * Active with {@code application.security.jwt.revocation.enabled=true} in services that have Redis.
+ */
+@Slf4j
+@Component
+@ConditionalOnClass(name = "org.springframework.data.redis.core.ReactiveStringRedisTemplate")
+@ConditionalOnProperty(name = "application.security.jwt.revocation.enabled", havingValue = "true")
+public class RedisTokenRevocationListener {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final TokenDenyList tokenDenyList;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+
+    private Disposable subscription;
+
+    public RedisTokenRevocationListener(ReactiveStringRedisTemplate redisTemplate, TokenDenyList tokenDenyList) {
+        this.redisTemplate = redisTemplate;
+        this.tokenDenyList = tokenDenyList;
+        this.listenerContainer = new ReactiveRedisMessageListenerContainer(redisTemplate.getConnectionFactory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        subscription = loadRevoked()
+                .thenMany(listenerContainer.receive(ChannelTopic.of(SecurityConstants.TOKEN_REVOCATION_CHANNEL)))
+                .doOnNext(message -> apply(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Token revocation subscription failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        listenerContainer.destroy();
+    }
+
+    private Mono<Long> loadRevoked() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(SecurityConstants.REVOKED_TOKEN_KEY_PREFIX + "*")
+                .count(500)
+                .build();
+        return redisTemplate.scan(options)
+                .concatMap(key -> redisTemplate.opsForValue().get(key)
+                        .doOnNext(expiry -> apply(key.substring(SecurityConstants.REVOKED_TOKEN_KEY_PREFIX.length()) + "|" + expiry)))
+                .count()
+                .doOnNext(count -> log.info("Loaded {} revoked access tokens", count));
+    }
+
+    /**
+     * @param message {@code jti|expiry}, the expiry in epoch seconds
+     */
+    private void apply(String message) {
+        int separator = message.lastIndexOf('|');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed token revocation: {}", message);
+            return;
+        }
+        try {
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(message.substring(separator + 1)));
+            tokenDenyList.revoke(message.substring(0, separator), expiresAt);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation: {}", message);
+        }
+    }
+}
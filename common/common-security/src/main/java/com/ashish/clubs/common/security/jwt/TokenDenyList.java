@@ -0,0 +1,69 @@
+package com.ashish.clubs.common.security.jwt;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory deny-list of revoked access tokens, keyed by their "jti" claim.
+ * Used by stateless authentication to reject a specific token before it expires without calling
+ * another service. Entries are only kept until the token's own expiry, after which the parser
+ * rejects the token anyway, so the list stays small.
+ * The list is local to the instance. In services with Redis, {@link RedisTokenRevocationListener} fills it
+ * with the revocations auth-service publishes on logout.
+ */
+@Component
+public class TokenDenyList {
+
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * Revokes a token until it expires.
+     *
+     * @param tokenId   The "jti" of the token to revoke.
+     * @param expiresAt The token's expiration; the entry is dropped after this instant.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt != null ? expiresAt : Instant.MAX);
+        if (revoked.size() > PURGE_THRESHOLD) {
+            purgeExpired();
+        }
+    }
+
+    /**
+     * Checks whether a token has been revoked and has not yet expired.
+     *
+     * @param tokenId The "jti" of the token.
+     * @return true if the token must be rejected.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(tokenId);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (!expiresAt.isAfter(Instant.now())) {
+            revoked.remove(tokenId, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void purgeExpired() {
+        Instant now = Instant.now();
+        revoked.entrySet().removeIf(entry -> !entry.getValue().isAfter(now));
+    }
+}
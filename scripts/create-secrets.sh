@@ -15,6 +15,7 @@ kubectl create secret generic tclubs-secrets \
   --from-literal=JWT_SECRET="$(grep '^JWT_SECRET=' "$ENV_FILE" | cut -d'=' -f2-)" \
   --from-literal=JWT_EXPIRATION_TIME="$(grep '^JWT_EXPIRATION_TIME=' "$ENV_FILE" | cut -d'=' -f2-)" \
   --from-literal=JWT_REFRESH_EXPIRATION_TIME="$(grep '^JWT_REFRESH_EXPIRATION_TIME=' "$ENV_FILE" | cut -d'=' -f2-)" \
+  --from-literal=IDENTITY_HEADER_SECRET="$(grep '^IDENTITY_HEADER_SECRET=' "$ENV_FILE" | cut -d'=' -f2-)" \
   --from-literal=KAFKA_BOOTSTRAP_SERVERS="$(grep '^KAFKA_BOOTSTRAP_SERVERS=' "$ENV_FILE" | cut -d'=' -f2-)" \
   --from-literal=MINIO_URL="$(grep '^MINIO_URL=' "$ENV_FILE" | cut -d'=' -f2-)" \
   --from-literal=MINIO_ACCESS_KEY="$(grep '^MINIO_ACCESS_KEY=' "$ENV_FILE" | cut -d'=' -f2-)" \
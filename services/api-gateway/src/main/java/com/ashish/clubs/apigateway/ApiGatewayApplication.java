@@ -18,6 +18,7 @@ import java.util.Collections;
 @ComponentScan(basePackages = {
         "com.ashish.clubs.apigateway", // Your gateway's own package
         "com.ashish.clubs.common.security.jwt", // <-- Corrected: Use your project's root package
+        "com.ashish.clubs.common.security.identity", // Signs the identity headers forwarded downstream
         "com.ashish.clubs.common.config" // <-- Also ensure this is scanned if you have beans there
 })
 public class ApiGatewayApplication {
@@ -0,0 +1,123 @@
+package com.ashish.clubs.apigateway.cache;
+
+import com.ashish.clubs.common.security.jwt.JwtPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of JWT principals that already passed signature verification at the gateway.
+ * Clients reuse the same access token for many requests, so verifying it once and remembering
+ * the result saves the HMAC check and JSON parse on every following request.
+ * Entries are keyed by a SHA-256 digest of the token (the raw token is never retained) and
+ * expire at the token's own {@code exp} claim, so a cache hit can never outlive the token.
+ */
+@Slf4j
+@Component
+public class VerifiedClaimsCache {
+
+    public static final String CACHE_NAME = "gateway.jwt.verified-claims";
+
+    private final Cache<String, JwtPrincipal> cache;
+
+    public VerifiedClaimsCache(
+            @Value("${application.security.jwt.claims-cache.max-size:10000}") long maxSize,
+            @Value("${application.security.jwt.claims-cache.max-ttl:PT15M}") Duration maxTtl,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under the cache name
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Verified JWT claims cache initialised (maxSize={}, maxTtl={})", maxSize, maxTtl);
+    }
+
+    /**
+     * Returns the verified principal for the token, running the verifier only on a cache miss.
+     * Errors from the verifier (expired, bad signature, malformed) are propagated and never cached.
+     *
+     * @param token    The compact JWT string.
+     * @param verifier Performs the full signature verification and claims parse.
+     * @return A Mono emitting the verified principal.
+     */
+    public Mono<JwtPrincipal> getOrVerify(String token, Function<String, Mono<JwtPrincipal>> verifier) {
+        final String key = digest(token);
+        JwtPrincipal cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return verifier.apply(token)
+                .doOnNext(principal -> cache.put(key, principal));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            // MessageDigest is not thread-safe, so a fresh instance is used per call (cheap compared to a JWT parse)
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Expires each entry at the {@code exp} of the token it was verified from, capped by a maximum TTL
+     * so tokens without an expiration do not stay cached forever.
+     */
+    private static final class ExpireAtTokenExpiry implements Expiry<String, JwtPrincipal> {
+
+        private final long maxTtlNanos;
+
+        private ExpireAtTokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            if (principal.expiresAt() == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = Duration.between(Instant.now(), principal.expiresAt()).toNanos();
+            return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package com.ashish.clubs.apigateway.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
+
 /**
  * Defines a KeyResolver bean for IP address based rate limiting.
  */
 @Configuration
 public class GatewayConfig {
 
+    private static final String UNKNOWN_CLIENT = "unknown";
+
     @Bean
-    public KeyResolver ipAddressKeyResolver() {
-        // Resolve the key based on the remote address of the request
-        return exchange -> Mono.just(exchange.getRequest().getRemoteAddress().getAddress().getHostAddress());
+    public KeyResolver ipAddressKeyResolver(@Value("${gateway.rate-limiter.trusted-proxies:1}") int trustedProxies) {
+        // Behind the ingress every request shares the proxy's remote address, so the client IP is taken from
+        // X-Forwarded-For. Only the entries appended by our own proxies are trusted (counted from the right),
+        // a client-supplied value cannot be used to dodge the limit. Without the header, the remote address is used.
+        XForwardedRemoteAddressResolver addressResolver = XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies);
+        return exchange -> {
+            InetSocketAddress address = addressResolver.resolve(exchange);
+            if (address == null) {
+                return Mono.just(UNKNOWN_CLIENT);
+            }
+            return Mono.just(address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString());
+        };
     }
 
     // You can add other gateway-specific configurations here if needed
-}
\ No newline at end of file
+}
@@ -1,24 +1,30 @@
 package com.ashish.clubs.apigateway.filter;
 
+import com.ashish.clubs.apigateway.cache.VerifiedClaimsCache;
 import com.ashish.clubs.common.security.SecurityConstants;
+import com.ashish.clubs.common.security.identity.IdentityHeaderSigner;
+import com.ashish.clubs.common.security.jwt.JwtPrincipal;
 import com.ashish.clubs.common.security.jwt.JwtUtil;
+import com.ashish.clubs.common.security.jwt.TokenDenyList;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher; // Import AntPathMatcher
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List; // Ensure List is imported
+import java.util.List;
 
 /**
  * Custom GatewayFilter to validate JWT tokens.
@@ -29,26 +35,41 @@ import java.util.List; // Ensure List is imported
 public class JwtAuthGatewayFilter extends AbstractGatewayFilterFactory<JwtAuthGatewayFilter.Config> {
 
     private final JwtUtil jwtUtil;
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher(); // For Ant-style path matching
-
-    public JwtAuthGatewayFilter(JwtUtil jwtUtil) {
+    private final VerifiedClaimsCache verifiedClaimsCache;
+    private final IdentityHeaderSigner identityHeaderSigner;
+    private final TokenDenyList tokenDenyList;
+    private final boolean revocationCheckEnabled;
+
+    public JwtAuthGatewayFilter(JwtUtil jwtUtil, VerifiedClaimsCache verifiedClaimsCache, IdentityHeaderSigner identityHeaderSigner,
+                                TokenDenyList tokenDenyList,
+                                @Value("${application.security.jwt.revocation.enabled:false}") boolean revocationCheckEnabled) {
         super(Config.class);
         this.jwtUtil = jwtUtil;
+        this.verifiedClaimsCache = verifiedClaimsCache;
+        this.identityHeaderSigner = identityHeaderSigner;
+        this.tokenDenyList = tokenDenyList;
+        this.revocationCheckEnabled = revocationCheckEnabled;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
+        // Compiled once per route when the route is built, not per request
+        PublicEndpointMatcher publicEndpoints = compilePublicEndpoints(config);
+
         return (exchange, chain) -> {
-            ServerHttpRequest request = exchange.getRequest();
+            // Identity headers are only ever set by the gateway; drop anything a client tried to smuggle in
+            ServerHttpRequest request = exchange.getRequest().mutate()
+                    .headers(identityHeaderSigner::removeHeaders)
+                    .build();
+            ServerWebExchange strippedExchange = exchange.mutate().request(request).build();
             String path = request.getURI().getPath();
 
             // Check if the request path matches any public endpoint
-            boolean isPublicEndpoint = Arrays.stream(SecurityConstants.PUBLIC_ENDPOINTS)
-                    .anyMatch(uri -> antPathMatcher.match(uri, path));
+            boolean isPublicEndpoint = publicEndpoints.isPublic(request.getPath().pathWithinApplication());
 
             if (isPublicEndpoint) {
                 log.debug("Path {} is a public endpoint, skipping JWT validation.", path);
-                return chain.filter(exchange); // Continue to the next filter in the chain
+                return chain.filter(strippedExchange); // Continue to the next filter in the chain
             } else {
                 log.debug("Path {} requires authentication, attempting JWT validation.", path);
 
@@ -68,32 +89,51 @@ public class JwtAuthGatewayFilter extends AbstractGatewayFilterFactory<JwtAuthGa
 
                 String token = authHeader.substring(SecurityConstants.JWT_TOKEN_PREFIX.length());
 
-                try {
-                    // Extract username to implicitly validate token signature and expiration
-                    String username = jwtUtil.extractUsername(token);
-                    log.info("JWT token validated successfully for user: {}", username);
-
-                    // If needed, add authenticated user info to request headers for downstream services
-                    // Note: This is an example; in a real scenario, you might pass a dedicated DTO
-                    // or validate roles more thoroughly here if the gateway is the only place doing it.
-                    exchange.getRequest().mutate().header("X-Authenticated-User", username).build();
-
-                } catch (ExpiredJwtException e) {
-                    log.warn("JWT Token expired for path {}: {}", path, e.getMessage());
-                    return this.onError(exchange, "JWT Token has expired", HttpStatus.UNAUTHORIZED);
-                } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
-                    log.warn("Invalid JWT Token for path {}: {}", path, e.getMessage());
-                    return this.onError(exchange, "Invalid JWT Token", HttpStatus.UNAUTHORIZED);
-                } catch (Exception e) {
-                    log.error("An unexpected error occurred during JWT validation for path {}: {}", path, e.getMessage(), e);
-                    return this.onError(exchange, "An unexpected error occurred during authentication", HttpStatus.INTERNAL_SERVER_ERROR);
-                }
+                // Signature and expiration are verified once per token; repeat requests are served from the cache
+                return verifiedClaimsCache.getOrVerify(token, jwtUtil::verify)
+                        .onErrorResume(e -> this.onJwtError(exchange, path, e).then(Mono.<JwtPrincipal>empty()))
+                        .flatMap(principal -> {
+                            // Checked on every request, cache hits included, so a logout takes effect at once
+                            if (revocationCheckEnabled && tokenDenyList.isRevoked(principal.tokenId())) {
+                                log.warn("Revoked JWT Token {} used for path {}", principal.tokenId(), path);
+                                return this.onError(exchange, "JWT Token has been revoked", HttpStatus.UNAUTHORIZED);
+                            }
+                            String username = principal.subject();
+                            log.debug("JWT token validated successfully for user: {}", username);
+
+                            // Forward the verified identity as signed headers so downstream services skip re-verification
+                            ServerHttpRequest authenticatedRequest = request.mutate()
+                                    .headers(headers -> identityHeaderSigner.writeHeaders(principal, headers))
+                                    .build();
+
+                            return chain.filter(exchange.mutate().request(authenticatedRequest).build()); // Continue to the next filter/route
+                        });
             }
-
-            return chain.filter(exchange); // Continue to the next filter/route
         };
     }
 
+    private PublicEndpointMatcher compilePublicEndpoints(Config config) {
+        List<String> patterns = new ArrayList<>(Arrays.asList(SecurityConstants.PUBLIC_ENDPOINTS));
+        if (config.getPublicPaths() != null) {
+            patterns.addAll(config.getPublicPaths());
+        }
+        return PublicEndpointMatcher.compile(patterns);
+    }
+
+    private Mono<Void> onJwtError(ServerWebExchange exchange, String path, Throwable e) {
+        if (e instanceof ExpiredJwtException) {
+            log.warn("JWT Token expired for path {}: {}", path, e.getMessage());
+            return this.onError(exchange, "JWT Token has expired", HttpStatus.UNAUTHORIZED);
+        }
+        if (e instanceof SignatureException || e instanceof MalformedJwtException
+                || e instanceof UnsupportedJwtException || e instanceof IllegalArgumentException) {
+            log.warn("Invalid JWT Token for path {}: {}", path, e.getMessage());
+            return this.onError(exchange, "Invalid JWT Token", HttpStatus.UNAUTHORIZED);
+        }
+        log.error("An unexpected error occurred during JWT validation for path {}: {}", path, e.getMessage(), e);
+        return this.onError(exchange, "An unexpected error occurred during authentication", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
         ServerHttpResponse response = exchange.getResponse();
         response.setStatusCode(httpStatus);
@@ -101,7 +141,9 @@ public class JwtAuthGatewayFilter extends AbstractGatewayFilterFactory<JwtAuthGa
         return response.setComplete();
     }
 
+    @Data
     public static class Config {
-        // No specific configuration properties needed for this filter, so Config is empty.
+        // Additional route-specific public path patterns, on top of SecurityConstants.PUBLIC_ENDPOINTS
+        private List<String> publicPaths = new ArrayList<>();
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.ashish.clubs.apigateway.filter;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classifies request paths as public or secured using patterns compiled once at startup.
+ * <p>
+ * Patterns are parsed with {@link PathPatternParser} (no per-request parsing, unlike {@code AntPathMatcher})
+ * and indexed by their first literal path segment, so a lookup only runs the handful of patterns that
+ * share the request's first segment, plus those that start with a wildcard or variable.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class PublicEndpointMatcher {
+
+    private final Map<String, PathPattern[]> patternsByFirstSegment;
+    private final PathPattern[] wildcardPatterns;
+
+    private PublicEndpointMatcher(Map<String, PathPattern[]> patternsByFirstSegment, PathPattern[] wildcardPatterns) {
+        this.patternsByFirstSegment = patternsByFirstSegment;
+        this.wildcardPatterns = wildcardPatterns;
+    }
+
+    /**
+     * Compiles the given Ant-style patterns (e.g. {@code /api/v1/auth/**}) into a matcher.
+     * Duplicate patterns are ignored.
+     */
+    public static PublicEndpointMatcher compile(Collection<String> patterns) {
+        PathPatternParser parser = new PathPatternParser();
+        Map<String, List<PathPattern>> buckets = new HashMap<>();
+        List<PathPattern> wildcards = new ArrayList<>();
+
+        for (String raw : new LinkedHashSet<>(patterns)) {
+            String pattern = raw.startsWith("/") ? raw : "/" + raw;
+            PathPattern compiled = parser.parse(pattern);
+            String firstSegment = firstSegment(pattern);
+            if (firstSegment == null || isWildcard(firstSegment)) {
+                wildcards.add(compiled);
+            } else {
+                buckets.computeIfAbsent(firstSegment, key -> new ArrayList<>()).add(compiled);
+            }
+        }
+
+        Map<String, PathPattern[]> index = new HashMap<>();
+        buckets.forEach((segment, bucket) -> index.put(segment, bucket.toArray(PathPattern[]::new)));
+        return new PublicEndpointMatcher(Map.copyOf(index), wildcards.toArray(PathPattern[]::new));
+    }
+
+    /**
+     * @param path The parsed request path, e.g. {@code request.getPath().pathWithinApplication()}.
+     * @return true if the path matches any public pattern and needs no authentication.
+     */
+    public boolean isPublic(PathContainer path) {
+        String firstSegment = firstSegment(path.value());
+        if (firstSegment != null) {
+            PathPattern[] bucket = patternsByFirstSegment.get(firstSegment);
+            if (bucket != null && matchesAny(bucket, path)) {
+                return true;
+            }
+        }
+        return matchesAny(wildcardPatterns, path);
+    }
+
+    public boolean isPublic(String path) {
+        return isPublic(PathContainer.parsePath(path));
+    }
+
+    private static boolean matchesAny(PathPattern[] patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first segment of a path or pattern (without slashes), or null for the root path.
+     */
+    private static String firstSegment(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        if (start >= path.length()) {
+            return null;
+        }
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static boolean isWildcard(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+}
@@ -0,0 +1,242 @@
+package com.ashish.clubs.apigateway.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process token-bucket rate limiter for {@code RequestRateLimiter} routes.
+ * <p>
+ * Each route/key pair owns a bucket whose whole state is a single {@code long} (the GCRA "theoretical
+ * arrival time"), updated with a compare-and-set loop, so admitting a request takes no lock and no
+ * network call. Buckets live in a {@link ConcurrentHashMap}, whose striped bins keep contention between
+ * keys low. Idle (full) buckets are swept periodically so the number of tracked keys stays bounded.
+ * <p>
+ * On its own the limiter enforces the limit per gateway instance. With Redis sync enabled it also acts as
+ * the first tier of a global limit: admitted permits are accumulated locally and pushed to Redis in one
+ * batch per sync interval, and a key whose cluster-wide count exceeds its window allowance is rejected
+ * locally until the window ends. Redis is never on the request path, so a slow or unavailable Redis only
+ * delays global coordination, it never stalls or fails requests.
+ */
+@Slf4j
+@Primary // RequestRateLimiter needs a single default RateLimiter; routes can still pick RedisRateLimiter explicitly
+@Component
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final String REDIS_KEY_PREFIX = "request_rate_limiter.local.{";
+
+    private final Config defaultConfig = new Config();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long epoch = System.nanoTime(); // makes relative nano timestamps non-negative
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final boolean redisSyncEnabled;
+    private final Duration syncInterval;
+    private final Duration syncWindow;
+    private final int syncConcurrency;
+    private final int maxKeys;
+
+    private Disposable maintenance;
+
+    public LocalTokenBucketRateLimiter(
+            ConfigurationService configurationService,
+            ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+            @Value("${gateway.rate-limiter.local.redis-sync.enabled:true}") boolean redisSyncEnabled,
+            @Value("${gateway.rate-limiter.local.redis-sync.interval:PT1S}") Duration syncInterval,
+            @Value("${gateway.rate-limiter.local.redis-sync.window:PT10S}") Duration syncWindow,
+            @Value("${gateway.rate-limiter.local.redis-sync.concurrency:64}") int syncConcurrency,
+            @Value("${gateway.rate-limiter.local.max-keys:100000}") int maxKeys) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        if (redisSyncEnabled && this.redisTemplate == null) {
+            log.warn("Redis sync requested for the local rate limiter but no ReactiveStringRedisTemplate is available, limiting per instance only");
+        }
+        this.redisSyncEnabled = redisSyncEnabled && this.redisTemplate != null;
+        this.syncInterval = syncInterval;
+        this.syncWindow = syncWindow;
+        this.syncConcurrency = syncConcurrency;
+        this.maxKeys = maxKeys;
+    }
+
+    @PostConstruct
+    public void startMaintenance() {
+        // A single periodic task sweeps idle buckets and, if enabled, pushes the batched counts to Redis
+        maintenance = Flux.interval(syncInterval, syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> (redisSyncEnabled ? syncWithRedis() : Mono.<Void>empty())
+                        .then(Mono.fromRunnable(this::sweepIdleBuckets))
+                        .onErrorResume(e -> {
+                            log.warn("Local rate limiter maintenance failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+        log.info("Local token-bucket rate limiter started (redisSync={}, interval={}, window={}, maxKeys={})",
+                redisSyncEnabled, syncInterval, syncWindow, maxKeys);
+    }
+
+    @PreDestroy
+    public void stopMaintenance() {
+        if (maintenance != null) {
+            maintenance.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config routeConfig = getConfig().getOrDefault(routeId, defaultConfig);
+        long now = System.nanoTime() - epoch;
+
+        Bucket bucket = buckets.computeIfAbsent(routeId + ':' + id, key -> new Bucket(key, routeConfig, syncWindow));
+        // A key rejected cluster-wide must not also drain its local bucket, or it stays throttled after the window
+        long remaining = bucket.isGloballyExhausted(now) ? -1 : bucket.tryAcquire(now);
+        boolean allowed = remaining >= 0;
+        if (allowed && redisSyncEnabled) {
+            bucket.pending.add(routeConfig.getRequestedTokens());
+        }
+
+        return Mono.just(new Response(allowed, headers(routeConfig, allowed ? remaining : bucket.available(now))));
+    }
+
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+                RedisRateLimiter.REMAINING_HEADER, Long.toString(Math.max(0, remaining)),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+                RedisRateLimiter.BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+    }
+
+    /**
+     * Pushes the permits admitted since the last sync to Redis, one INCRBY per active key, issued
+     * concurrently so the driver pipelines them over the shared connection.
+     */
+    private Mono<Void> syncWithRedis() {
+        long windowMillis = syncWindow.toMillis();
+        long nowMillis = System.currentTimeMillis();
+        long window = nowMillis / windowMillis;
+        long windowEnd = System.nanoTime() - epoch + Duration.ofMillis((window + 1) * windowMillis - nowMillis).toNanos();
+
+        return Flux.fromIterable(buckets.values())
+                .filter(bucket -> bucket.pending.sum() > 0)
+                .flatMap(bucket -> {
+                    long delta = bucket.pending.sumThenReset();
+                    String redisKey = REDIS_KEY_PREFIX + bucket.key + "}." + window;
+                    return redisTemplate.opsForValue().increment(redisKey, delta)
+                            .flatMap(total -> (total == delta
+                                    ? redisTemplate.expire(redisKey, syncWindow.multipliedBy(2))
+                                    : Mono.just(true)).thenReturn(total))
+                            .doOnNext(total -> {
+                                if (total > bucket.windowAllowance) {
+                                    bucket.exhaustedUntil = windowEnd;
+                                }
+                            })
+                            .onErrorResume(e -> {
+                                // Counts for this interval are dropped; the local limit still applies
+                                log.debug("Failed to sync rate limit counts for {}: {}", bucket.key, e.getMessage());
+                                return Mono.empty();
+                            });
+                }, syncConcurrency)
+                .then();
+    }
+
+    private void sweepIdleBuckets() {
+        long now = System.nanoTime() - epoch;
+        // A bucket that has refilled completely behaves exactly like a new one, so it can be dropped
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        if (buckets.size() > maxKeys) {
+            log.warn("Local rate limiter is tracking {} active keys (max-keys={})", buckets.size(), maxKeys);
+        }
+    }
+
+    /**
+     * Token bucket for a single route/key, stored as the GCRA theoretical arrival time: the instant at
+     * which the bucket would be full again. Admitting n tokens moves it forward by n emission intervals,
+     * and a request is rejected if that would put it more than a full bucket ahead of now.
+     */
+    private static final class Bucket {
+
+        private final String key;
+        private final long emissionInterval;
+        private final long increment;
+        private final long capacity;
+        private final long windowAllowance;
+        private final AtomicLong theoreticalArrival = new AtomicLong();
+        private final LongAdder pending = new LongAdder(); // permits admitted since the last Redis sync
+        private volatile long exhaustedUntil;
+
+        private Bucket(String key, Config config, Duration syncWindow) {
+            this.key = key;
+            this.emissionInterval = NANOS_PER_SECOND / Math.max(1, config.getReplenishRate());
+            this.increment = emissionInterval * config.getRequestedTokens();
+            this.capacity = emissionInterval * Math.max(config.getBurstCapacity(), config.getRequestedTokens());
+            this.windowAllowance = config.getReplenishRate() * syncWindow.toMillis() / 1000 + config.getBurstCapacity(); // Sub-second windows included
+        }
+
+        /**
+         * @return The tokens left after admitting the request, or -1 if there are not enough tokens.
+         */
+        private long tryAcquire(long now) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long next = Math.max(tat, now) + increment;
+                if (next - now > capacity) {
+                    return -1;
+                }
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return (capacity - (next - now)) / emissionInterval;
+                }
+            }
+        }
+
+        private long available(long now) {
+            return (capacity - (Math.max(theoreticalArrival.get(), now) - now)) / emissionInterval;
+        }
+
+        private boolean isGloballyExhausted(long now) {
+            return exhaustedUntil > now;
+        }
+
+        private boolean isIdle(long now) {
+            return theoreticalArrival.get() <= now && pending.sum() == 0 && !isGloballyExhausted(now);
+        }
+    }
+
+    @Data
+    @Validated
+    public static class Config {
+
+        @Min(1)
+        private int replenishRate = 10; // Tokens added per second
+
+        @Min(0)
+        private int burstCapacity = 20; // Max tokens in bucket (burst allowance)
+
+        @Min(1)
+        private int requestedTokens = 1; // Tokens consumed per request
+    }
+}
@@ -0,0 +1,85 @@
+package com.ashish.clubs.apigateway.filter;
+
+import com.ashish.clubs.common.security.SecurityConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public-endpoint classification per request: {@link PublicEndpointMatcher} against the approach it replaced,
+ * streaming every pattern through {@link AntPathMatcher}, which re-tokenizes pattern and path on each match.
+ * <p>
+ * {@code compiled} gets the request path already parsed, as the gateway filter does;
+ * {@code compiledFromString} includes parsing the path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicEndpointMatcherBenchmark {
+
+    // Public (first and last pattern), secured, and secured under a wildcard-free prefix shared with a public pattern
+    @Param({"/api/v1/auth/login", "/webjars/swagger-ui/index.html", "/api/v1/posts/timeline", "/api/v1/media/42/content"})
+    public String path;
+
+    private String[] patterns;
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+    private PublicEndpointMatcher matcher;
+    private PathContainer parsedPath;
+
+    @Setup
+    public void setUp() {
+        List<String> all = new ArrayList<>(Arrays.asList(SecurityConstants.PUBLIC_ENDPOINTS));
+        // Route-specific publicPaths, as configured on the gateway routes
+        all.addAll(List.of("/api/v1/media/*/content", "/api/v1/posts/trending", "/api/v1/clubs/public/**"));
+        patterns = all.toArray(String[]::new);
+        matcher = PublicEndpointMatcher.compile(all);
+        parsedPath = PathContainer.parsePath(path);
+
+        if (legacy() != compiled()) {
+            throw new IllegalStateException("Matchers disagree on " + path);
+        }
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        return Arrays.stream(patterns).anyMatch(pattern -> antPathMatcher.match(pattern, path));
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return matcher.isPublic(parsedPath);
+    }
+
+    @Benchmark
+    public boolean compiledFromString() {
+        return matcher.isPublic(path);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PublicEndpointMatcherBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -9,12 +9,15 @@ import com.ashish.clubs.authservice.dto.UserCreationResponse;
 import com.ashish.clubs.authservice.entity.RefreshToken;
 import com.ashish.clubs.authservice.security.CustomUserDetails;
 import com.ashish.clubs.authservice.security.UserDetailsServiceImpl;
+import com.ashish.clubs.authservice.service.AccessTokenRevocationService;
 import com.ashish.clubs.authservice.service.RefreshTokenService;
 import com.ashish.clubs.common.models.user.Role;
 import com.ashish.clubs.common.models.user.User;
+import com.ashish.clubs.common.security.SecurityConstants;
 import com.ashish.clubs.common.security.jwt.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
@@ -26,6 +29,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -59,6 +63,9 @@ public class AuthController {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private AccessTokenRevocationService accessTokenRevocationService;
+
     @Autowired
     private UserDetailsServiceImpl userDetailsService; // To get the actual user ID
 
@@ -118,7 +125,7 @@ public class AuthController {
                             .collect(Collectors.toSet());
 
                     // Generate access token using common JwtUtil
-                    Mono<String> accessTokenMono = jwtUtil.generateAccessToken(email, roles);
+                    Mono<String> accessTokenMono = jwtUtil.generateAccessToken(email, userId, roles);
 
                     // Generate and store refresh token
                     Mono<RefreshToken> refreshTokenMono = refreshTokenService.generateRefreshToken(userId);
@@ -176,7 +183,7 @@ public class AuthController {
                     // return userService.getUserRoles(userId).flatMap(roles -> { ... });
 
                     return userRolesMono.flatMap(roles ->
-                        jwtUtil.generateAccessToken(userId, roles) // Generate new access token
+                        jwtUtil.generateAccessToken(userId, userId, roles) // Generate new access token
                             .map(newAccessToken -> {
                                 // 6. Construct and return the new LoginResponse DTO
                                 return ResponseEntity.ok(new LoginResponse(newAccessToken, newRefreshTokenEntity.getToken()));
@@ -190,15 +197,28 @@ public class AuthController {
     }
 
     /**
-     * Handles user logout by invalidating the provided refresh token.
+     * Handles user logout by invalidating the provided refresh token and, if the request carries one,
+     * revoking the access token so services checking revocations reject it before it expires.
      *
      * @param refreshToken DTO containing the refresh token to invalidate.
+     * @param authorization Optional "Bearer" header with the access token to revoke.
      * @return A Mono emitting a ResponseEntity indicating success or failure of logout.
      */
     @PostMapping("/logout")
-    public Mono<ResponseEntity<String>> logout(@RequestBody RefreshRequest refreshToken) {
+    public Mono<ResponseEntity<String>> logout(@RequestBody RefreshRequest refreshToken,
+                                               @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
         return refreshTokenService.deleteRefreshToken(refreshToken.getRefreshToken())
-                .map(voidResult -> ResponseEntity.ok("Logged out successfully"))
+                .then(revokeAccessToken(authorization))
+                .thenReturn(ResponseEntity.ok("Logged out successfully"))
                 .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Logout failed: " + e.getMessage())));
     }
+
+    private Mono<Void> revokeAccessToken(String authorization) {
+        if (authorization == null || !authorization.startsWith(SecurityConstants.JWT_TOKEN_PREFIX)) {
+            return Mono.empty();
+        }
+        return jwtUtil.verify(authorization.substring(SecurityConstants.JWT_TOKEN_PREFIX.length()))
+                .onErrorResume(e -> Mono.empty()) // Expired or invalid, nothing left to revoke
+                .flatMap(accessTokenRevocationService::revoke);
+    }
 }
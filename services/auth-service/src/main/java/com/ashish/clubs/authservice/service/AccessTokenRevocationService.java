@@ -0,0 +1,41 @@
+package com.ashish.clubs.authservice.service;
+
+import com.ashish.clubs.common.security.SecurityConstants;
+import com.ashish.clubs.common.security.jwt.JwtPrincipal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revokes access tokens before they expire, e.g. on logout.
+ * The revocation is stored in Redis until the token's expiry and published to every service that checks
+ * revocations (see {@code RedisTokenRevocationListener}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccessTokenRevocationService {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public Mono<Void> revoke(JwtPrincipal principal) {
+        if (principal.tokenId() == null || principal.expiresAt() == null) {
+            return Mono.empty(); // Issued before tokens had an id, cannot be singled out
+        }
+        Duration remaining = Duration.between(Instant.now(), principal.expiresAt());
+        if (remaining.isNegative() || remaining.isZero()) {
+            return Mono.empty();
+        }
+        String expiry = Long.toString(principal.expiresAt().getEpochSecond());
+        return redisTemplate.opsForValue()
+                .set(SecurityConstants.REVOKED_TOKEN_KEY_PREFIX + principal.tokenId(), expiry, remaining)
+                .then(redisTemplate.convertAndSend(SecurityConstants.TOKEN_REVOCATION_CHANNEL, principal.tokenId() + "|" + expiry))
+                .doOnSuccess(receivers -> log.debug("Revoked access token {} of {}", principal.tokenId(), principal.subject()))
+                .then();
+    }
+}
@@ -3,6 +3,7 @@ package com.ashish.clubs.services.clubservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.ComponentScan;
 import org.springframework.kafka.annotation.EnableKafka;
 
 /**
@@ -12,6 +13,7 @@ import org.springframework.kafka.annotation.EnableKafka;
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableKafka
+@ComponentScan(basePackages = {"com.ashish.clubs.services.clubservice", "com.ashish.clubs.common.security"}) // JwtAuthFilter and its collaborators
 public class ClubServiceApplication {
 
     public static void main(String[] args) {
@@ -84,6 +84,16 @@ public class ClubController {
         return Mono.just(ResponseEntity.ok(clubService.getClubMembers(clubId)));
     }
 
+    /**
+     * Announce all active memberships on club-events again, e.g. to backfill a newly deployed consumer
+     */
+    @PostMapping("/memberships/republish")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Long>> republishMemberships() {
+        return clubService.republishActiveMemberships()
+                .map(count -> ResponseEntity.accepted().body(count));
+    }
+
     /**
      * Approve membership request
      */
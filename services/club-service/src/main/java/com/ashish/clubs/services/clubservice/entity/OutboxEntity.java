@@ -0,0 +1,60 @@
+package com.ashish.clubs.services.clubservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A domain event waiting to be published, stored in the same transaction as the change it describes.
+ * The payload is the serialized DomainEvent; events of one aggregate are published in id order.
+ */
+@Table("outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEntity {
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("event_id")
+    private UUID eventId;
+
+    @Column("aggregate_type")
+    private String aggregateType;
+
+    @Column("aggregate_id")
+    private String aggregateId;
+
+    @Column("event_type")
+    private String eventType;
+
+    @Column("topic")
+    private String topic;
+
+    @Column("payload")
+    private String payload;
+
+    @Column("attempts")
+    private int attempts;
+
+    @Column("created_at")
+    private Instant createdAt;
+
+    @Column("published_at")
+    private Instant publishedAt;
+
+    @Column("claimed_until")
+    private Instant claimedUntil;
+
+    @Column("parked_at")
+    private Instant parkedAt;
+}
@@ -0,0 +1,54 @@
+package com.ashish.clubs.services.clubservice.repository;
+
+import com.ashish.clubs.services.clubservice.entity.OutboxEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Instant;
+import java.util.Collection;
+
+@Repository
+public interface OutboxRepository extends R2dbcRepository<OutboxEntity, Long> {
+
+    /**
+     * Leases up to {@code limit} unpublished events until {@code leaseUntil}, oldest first. Aggregates with
+     * an event already leased, or waiting to be retried, are skipped, so the events of one aggregate are
+     * only ever held by one relay. Claims must not run concurrently (see OutboxRelay).
+     */
+    @Query("UPDATE outbox SET claimed_until = :leaseUntil WHERE id IN (" +
+            "SELECT o.id FROM outbox o WHERE o.published_at IS NULL AND o.parked_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox c WHERE c.aggregate_type = o.aggregate_type " +
+            "AND c.aggregate_id = o.aggregate_id AND c.published_at IS NULL AND c.parked_at IS NULL " +
+            "AND c.claimed_until > :now) " +
+            "ORDER BY o.id LIMIT :limit) RETURNING *")
+    Flux<OutboxEntity> claimUnpublished(int limit, Instant now, Instant leaseUntil);
+
+    @Modifying
+    @Query("UPDATE outbox SET published_at = :publishedAt, claimed_until = NULL WHERE id IN (:ids)")
+    Mono<Integer> markPublished(Collection<Long> ids, Instant publishedAt);
+
+    /**
+     * Records a failed attempt. The event is retried from {@code retryAt}, or parked once it has
+     * been attempted {@code maxAttempts} times.
+     */
+    @Modifying
+    @Query("UPDATE outbox SET attempts = attempts + 1, " +
+            "claimed_until = CASE WHEN attempts + 1 >= :maxAttempts THEN NULL ELSE :retryAt END, " +
+            "parked_at = CASE WHEN attempts + 1 >= :maxAttempts THEN :now ELSE NULL END " +
+            "WHERE id = :id")
+    Mono<Integer> recordFailure(Long id, int maxAttempts, Instant retryAt, Instant now);
+
+    /**
+     * Gives leased events back without an attempt, e.g. the successors of a failed event.
+     */
+    @Modifying
+    @Query("UPDATE outbox SET claimed_until = NULL WHERE id IN (:ids)")
+    Mono<Integer> release(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM outbox WHERE published_at < :before")
+    Mono<Integer> deletePublishedBefore(Instant before);
+}
@@ -2,7 +2,6 @@ package com.ashish.clubs.services.clubservice.service;
 
 import com.ashish.clubs.common.config.AppConstants;
 import com.ashish.clubs.common.messaging.event.DomainEvent;
-import com.ashish.clubs.common.messaging.producer.KafkaEventProducer;
 import com.ashish.clubs.common.models.club.Club;
 import com.ashish.clubs.common.models.club.Membership;
 import com.ashish.clubs.common.models.club.MembershipRole;
@@ -14,6 +13,7 @@ import com.ashish.clubs.services.clubservice.repository.MembershipRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -27,7 +27,8 @@ public class ClubService {
 
     private final ClubRepository clubRepository;
     private final MembershipRepository membershipRepository;
-    private final KafkaEventProducer kafkaEventProducer;
+    private final OutboxService outboxService;
+    private final TransactionalOperator transactionalOperator;
 
     /**
      * Create a new club
@@ -62,9 +63,11 @@ public class ClubService {
                             .timestamp(Instant.now())
                             .build();
 
-                    return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_CLUB_EVENTS, event)
+                    // Stored with the club in one transaction, published by OutboxRelay
+                    return outboxService.append(AppConstants.KAFKA_TOPIC_CLUB_EVENTS, event)
                             .then(Mono.just(savedClub));
-                });
+                })
+                .as(transactionalOperator::transactional);
     }
 
     /**
@@ -138,10 +141,11 @@ public class ClubService {
                             .timestamp(Instant.now())
                             .build();
 
-                    return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_CLUB_EVENTS, event)
+                    return outboxService.append(AppConstants.KAFKA_TOPIC_CLUB_EVENTS, event)
                             .then(Mono.just(model))
-                            .doOnError(ex -> log.error("Failed to publish membership event", ex));
-                });
+                            .doOnError(ex -> log.error("Failed to store membership event", ex));
+                })
+                .as(transactionalOperator::transactional);
     }
 
     /**
@@ -168,22 +172,46 @@ public class ClubService {
                     return membershipRepository.save(membership)
                             .flatMap(updated -> {
                                 Membership model = modelFromMembershipEntity(updated);
-
-                                DomainEvent event = DomainEvent.builder()
-                                        .eventId(UUID.randomUUID().toString())
-                                        .eventType("CLUB_MEMBERSHIP_APPROVED")
-                                        .sourceService("club-service")
-                                        .entityId(membership.getClubId().toString())
-                                        .entityType("MEMBERSHIP")
-                                        .actorId(membership.getUserId().toString())
-                                        .payload(model)
-                                        .timestamp(Instant.now())
-                                        .build();
-
-                                return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_CLUB_EVENTS, event)
+                                return outboxService.append(AppConstants.KAFKA_TOPIC_CLUB_EVENTS, membershipApprovedEvent(model))
                                         .then(Mono.just(model));
                             });
-                });
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Announce every active membership again as CLUB_MEMBERSHIP_APPROVED, so services that mirror memberships
+     * from club-events (feed-service's home timelines) can backfill the ones made before they subscribed.
+     * Consumers apply the event idempotently. Each club's events are appended in one transaction, after any
+     * event of that club already in the outbox, so a later leave still wins.
+     *
+     * @return Mono emitting the number of memberships announced
+     */
+    public Mono<Long> republishActiveMemberships() {
+        log.info("Republishing active memberships");
+
+        return clubRepository.findAll()
+                .concatMap(club -> membershipRepository.findByClubIdAndStatus(club.getClubId(), MembershipStatus.ACTIVE.name())
+                        .concatMap(membership -> outboxService.append(AppConstants.KAFKA_TOPIC_CLUB_EVENTS,
+                                        membershipApprovedEvent(modelFromMembershipEntity(membership)))
+                                .thenReturn(membership))
+                        .count()
+                        .as(transactionalOperator::transactional))
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> log.info("Republished {} active memberships", count));
+    }
+
+    private static DomainEvent membershipApprovedEvent(Membership membership) {
+        return DomainEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("CLUB_MEMBERSHIP_APPROVED")
+                .sourceService("club-service")
+                .entityId(membership.getClubId())
+                .entityType("MEMBERSHIP")
+                .actorId(membership.getUserId())
+                .payload(membership)
+                .timestamp(Instant.now())
+                .build();
     }
 
     // Helper methods
@@ -0,0 +1,245 @@
+package com.ashish.clubs.services.clubservice.service;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.messaging.producer.DeliveryMode;
+import com.ashish.clubs.common.messaging.producer.KafkaEventProducer;
+import com.ashish.clubs.services.clubservice.entity.OutboxEntity;
+import com.ashish.clubs.services.clubservice.repository.OutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes outbox events to Kafka in the background.
+ * <p>
+ * Each poll leases a batch of unpublished events in id order, in a short transaction that holds a Postgres
+ * advisory lock so claims never interleave. Events of an aggregate that already has a leased event are
+ * skipped, so an aggregate's events are only ever held by one relay. The events are then published outside
+ * any transaction, and the published ones are marked in a second short statement. A relay that dies
+ * mid-batch loses its lease after {@code lease}, and the events are claimed again.
+ * <p>
+ * The batch is grouped by the Kafka message key the producer's key strategy assigns (entity type and id by
+ * default): groups are published concurrently, the events within a group one after another. A group stops at
+ * its first failure, so a later event of an entity is never published before an earlier one. The failed
+ * event is retried with exponential backoff, holding back its aggregate meanwhile; after
+ * {@code max-attempts} it is parked (parked_at is set) and the aggregate's later events go ahead.
+ * <p>
+ * Delivery is at-least-once: an event that was sent but whose published_at update did not commit is sent again.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // Arbitrary application-wide key for pg_try_advisory_xact_lock
+    private static final long RELAY_LOCK_KEY = 0x436c75624f7574L;
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxService outboxService;
+    private final KafkaEventProducer kafkaEventProducer;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration maxBackoff;
+
+    private Disposable relay;
+    private Disposable cleanup;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxService outboxService,
+                       KafkaEventProducer kafkaEventProducer,
+                       DatabaseClient databaseClient,
+                       TransactionalOperator transactionalOperator,
+                       @Value("${application.outbox.batch-size:100}") int batchSize,
+                       @Value("${application.outbox.poll-interval:PT0.5S}") Duration pollInterval,
+                       @Value("${application.outbox.retention:P1D}") Duration retention,
+                       @Value("${application.outbox.lease:PT5M}") Duration lease,
+                       @Value("${application.outbox.max-attempts:20}") int maxAttempts,
+                       @Value("${application.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.outboxService = outboxService;
+        this.kafkaEventProducer = kafkaEventProducer;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Starts polling once the application (and its schema) is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        relay = Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> relayBatch()
+                        .onErrorResume(e -> {
+                            log.error("Outbox relay poll failed", e);
+                            return Mono.just(0);
+                        }))
+                .subscribe();
+        cleanup = Flux.interval(Duration.ofMinutes(1))
+                .onBackpressureDrop()
+                .concatMap(tick -> outboxRepository.deletePublishedBefore(Instant.now().minus(retention))
+                        .onErrorResume(e -> {
+                            log.warn("Outbox cleanup failed: {}", e.getMessage());
+                            return Mono.just(0);
+                        }))
+                .subscribe();
+        log.info("Outbox relay started (batchSize={}, pollInterval={})", batchSize, pollInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (relay != null) {
+            relay.dispose();
+        }
+        if (cleanup != null) {
+            cleanup.dispose();
+        }
+    }
+
+    /**
+     * Relays one batch of events.
+     *
+     * @return Mono emitting the number of events published
+     */
+    public Mono<Integer> relayBatch() {
+        return claim()
+                .flatMap(batch -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    return Flux.fromIterable(groupByMessageKey(batch).values())
+                            .flatMap(this::publishInOrder)
+                            .flatMapIterable(published -> published)
+                            .collectList()
+                            .flatMap(ids -> ids.isEmpty()
+                                    ? Mono.just(0)
+                                    : outboxRepository.markPublished(ids, Instant.now()).thenReturn(ids.size()));
+                })
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        log.debug("Relayed {} outbox events", count);
+                    }
+                });
+    }
+
+    /**
+     * Leases the next batch in a transaction of its own, which only lasts for the claim.
+     *
+     * @return Mono emitting the leased events in id order; empty if another relay is claiming right now
+     */
+    private Mono<List<OutboxEntity>> claim() {
+        Instant now = Instant.now();
+        Mono<List<OutboxEntity>> claimed = tryLock()
+                .flatMap(locked -> locked
+                        ? outboxRepository.claimUnpublished(batchSize, now, now.plus(lease))
+                                .sort(Comparator.comparing(OutboxEntity::getId))
+                                .collectList()
+                        : Mono.just(List.<OutboxEntity>of()));
+        return transactionalOperator.transactional(claimed);
+    }
+
+    private Mono<Boolean> tryLock() {
+        return databaseClient.sql("SELECT pg_try_advisory_xact_lock(:key)")
+                .bind("key", RELAY_LOCK_KEY)
+                .map(row -> row.get(0, Boolean.class))
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Publishes the events of one aggregate sequentially, stopping at the first failure. The failed event is
+     * scheduled for a retry or parked, and the events after it are released for a later poll.
+     *
+     * @return Mono emitting the ids of the events that were published
+     */
+    private Mono<List<Long>> publishInOrder(List<OutboxEntity> events) {
+        List<Long> published = new ArrayList<>(events.size());
+        return Flux.fromIterable(events)
+                .concatMap(entry -> publish(entry).doOnSuccess(v -> published.add(entry.getId())))
+                .then(Mono.fromSupplier(() -> published))
+                .onErrorResume(e -> {
+                    List<Long> remaining = events.subList(published.size() + 1, events.size()).stream()
+                            .map(OutboxEntity::getId)
+                            .toList();
+                    Mono<Integer> released = remaining.isEmpty() ? Mono.just(0) : outboxRepository.release(remaining);
+                    return released.thenReturn(published);
+                });
+    }
+
+    private Mono<Void> publish(OutboxEntity entry) {
+        return Mono.fromCallable(() -> outboxService.deserialize(entry))
+                .flatMap((DomainEvent event) -> kafkaEventProducer.publishEvent(entry.getTopic(), event, DeliveryMode.AWAIT_ACK))
+                .onErrorResume(e -> recordFailure(entry, e).then(Mono.error(e)));
+    }
+
+    private Mono<Integer> recordFailure(OutboxEntity entry, Throwable e) {
+        int attempt = entry.getAttempts() + 1;
+        Instant now = Instant.now();
+        if (attempt >= maxAttempts) {
+            log.error("Parking outbox event {} ({}) of {} {} after {} failed attempts: {}",
+                    entry.getEventId(), entry.getEventType(), entry.getAggregateType(), entry.getAggregateId(),
+                    attempt, e.getMessage());
+        } else {
+            log.warn("Failed to relay outbox event {} ({}), attempt {}: {}",
+                    entry.getEventId(), entry.getEventType(), attempt, e.getMessage());
+        }
+        return outboxRepository.recordFailure(entry.getId(), maxAttempts, now.plus(backoff(attempt)), now);
+    }
+
+    /**
+     * @return The poll interval doubled for each failed attempt so far, capped at {@code max-backoff}
+     */
+    private Duration backoff(int attempt) {
+        long factor = 1L << Math.min(attempt - 1, 20);
+        Duration delay = pollInterval.multipliedBy(factor);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private Map<String, List<OutboxEntity>> groupByMessageKey(List<OutboxEntity> batch) {
+        // Insertion-ordered, and the batch is sorted by id, so each group keeps the append order
+        Map<String, List<OutboxEntity>> groups = new LinkedHashMap<>();
+        for (OutboxEntity entry : batch) {
+            // Grouped by the message key, so events sharing a partition key are never sent concurrently
+            groups.computeIfAbsent(kafkaEventProducer.keyFor(envelope(entry)), key -> new ArrayList<>()).add(entry);
+        }
+        return groups;
+    }
+
+    /**
+     * The event's envelope fields, enough for the key strategy without deserializing the payload.
+     */
+    private static DomainEvent envelope(OutboxEntity entry) {
+        return DomainEvent.builder()
+                .eventId(entry.getEventId().toString())
+                .eventType(entry.getEventType())
+                .entityType(entry.getAggregateType())
+                .entityId(entry.getAggregateId())
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ashish.clubs.services.clubservice.service;
+
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.services.clubservice.entity.OutboxEntity;
+import com.ashish.clubs.services.clubservice.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Appends domain events to the outbox table.
+ * Callers must run {@link #append} in the same R2DBC transaction as the entity change, so the event is
+ * stored if and only if the change commits; {@link OutboxRelay} publishes it to Kafka afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Store an event for publishing.
+     *
+     * @param topic The Kafka topic the event is published to
+     * @param event The domain event; events with the same entity id are published in the order they were appended
+     * @return Mono that completes once the outbox row is written
+     */
+    public Mono<Void> append(String topic, DomainEvent event) {
+        return Mono.fromCallable(() -> OutboxEntity.builder()
+                        .eventId(UUID.fromString(event.getEventId()))
+                        .aggregateType(event.getEntityType())
+                        .aggregateId(event.getEntityId())
+                        .eventType(event.getEventType())
+                        .topic(topic)
+                        .payload(serialize(event))
+                        .createdAt(Instant.now())
+                        .build())
+                .flatMap(outboxRepository::save)
+                .doOnNext(saved -> log.debug("Event {} ({}) added to outbox", saved.getEventId(), saved.getEventType()))
+                .then();
+    }
+
+    DomainEvent deserialize(OutboxEntity entry) throws JsonProcessingException {
+        return objectMapper.readValue(entry.getPayload(), DomainEvent.class);
+    }
+
+    private String serialize(DomainEvent event) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ashish.clubs.services.clubservice.controller;
+
+import com.ashish.clubs.common.security.JwtAuthFilter;
+import com.ashish.clubs.common.security.identity.IdentityHeaderSigner;
+import com.ashish.clubs.common.security.jwt.JwtUtil;
+import com.ashish.clubs.common.security.jwt.TokenDenyList;
+import com.ashish.clubs.services.clubservice.config.SecurityConfig;
+import com.ashish.clubs.services.clubservice.service.ClubService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The admin-only membership republish endpoint, behind the service's real security chain and JwtAuthFilter.
+ */
+@WebFluxTest(properties = {
+        "application.security.jwt.secret-key=Y2x1Yi1zZXJ2aWNlLXRlc3Qtc2lnbmluZy1rZXktMDEyMzQ1Njc4OQ==",
+        "application.security.jwt.expiration=60000",
+        "application.security.jwt.refresh-token.expiration=60000"
+})
+class ClubControllerSecurityTest {
+
+    private static final String REPUBLISH = "/api/v1/clubs/memberships/republish";
+
+    @Configuration
+    @Import({ClubController.class, SecurityConfig.class,
+            JwtAuthFilter.class, JwtUtil.class, TokenDenyList.class, IdentityHeaderSigner.class})
+    static class Config {
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private ClubService clubService;
+
+    @Test
+    void republishRequiresAuthentication() {
+        webTestClient.post().uri(REPUBLISH)
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        verify(clubService, never()).republishActiveMemberships();
+    }
+
+    @Test
+    void republishIsForbiddenToUsers() {
+        webTestClient.post().uri(REPUBLISH)
+                .header(HttpHeaders.AUTHORIZATION, bearer("ROLE_USER"))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        verify(clubService, never()).republishActiveMemberships();
+    }
+
+    @Test
+    void republishIsAllowedToAdmins() {
+        when(clubService.republishActiveMemberships()).thenReturn(Mono.just(3L));
+
+        webTestClient.post().uri(REPUBLISH)
+                .header(HttpHeaders.AUTHORIZATION, bearer("ROLE_ADMIN"))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(Long.class).isEqualTo(3L);
+    }
+
+    private String bearer(String role) {
+        return "Bearer " + jwtUtil.generateAccessToken("user@example.com", UUID.randomUUID().toString(), Set.of(role)).block();
+    }
+}
@@ -3,11 +3,13 @@ package com.ashish.clubs.services.feedservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.ComponentScan;
 import org.springframework.kafka.annotation.EnableKafka;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableKafka
+@ComponentScan(basePackages = {"com.ashish.clubs.services.feedservice", "com.ashish.clubs.common.security"}) // JwtAuthFilter and its collaborators
 public class FeedServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(FeedServiceApplication.class, args);
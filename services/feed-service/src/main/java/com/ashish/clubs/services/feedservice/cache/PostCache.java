@@ -0,0 +1,222 @@
+package com.ashish.clubs.services.feedservice.cache;
+
+import com.ashish.clubs.common.config.AppConstants;
+import com.ashish.clubs.common.models.feed.Post;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Two-tier read-through cache of posts ({@link AppConstants#CACHE_POSTS}).
+ * <p>
+ * A size-bounded Caffeine cache in each instance sits in front of Redis, which is shared by all
+ * instances, which sits in front of Mongo. Concurrent misses for the same post share one load.
+ * <p>
+ * Writes update or evict both tiers and publish the post id on a Redis channel; the other instances drop
+ * their local copy and reload it from Redis on the next read. Invalidations missed while the subscription
+ * is down are covered by the short local TTL. Redis failures never fail a read, they fall through to Mongo.
+ * <p>
+ * Metrics: {@code cache.gets{cache=postsCache,tier=local|redis,result=hit|miss}}, {@code cache.hit.ratio},
+ * the Caffeine eviction and size meters for the local tier, and {@code cache.invalidations{source=...}}.
+ */
+@Slf4j
+@Component
+public class PostCache {
+
+    private static final String KEY_PREFIX = AppConstants.CACHE_POSTS + "::";
+    private static final String CHANNEL = AppConstants.CACHE_POSTS + ":invalidations";
+
+    private final Cache<String, Post> local;
+    private final ReactiveRedisTemplate<String, Post> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final Duration redisTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Mono<Post>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    private Disposable subscription;
+
+    public PostCache(ReactiveRedisTemplate<String, Post> redisTemplate,
+                     ReactiveStringRedisTemplate stringRedisTemplate,
+                     ReactiveRedisMessageListenerContainer listenerContainer,
+                     MeterRegistry meterRegistry,
+                     @Value("${application.feed.post-cache.local-max-size:10000}") long localMaxSize,
+                     @Value("${application.feed.post-cache.local-ttl:PT30S}") Duration localTtl,
+                     @Value("${application.feed.post-cache.redis-ttl:PT10M}") Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.redisTtl = redisTtl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size for the local tier
+        CaffeineCacheMetrics.monitor(meterRegistry, local, AppConstants.CACHE_POSTS, "tier", "local");
+        this.redisHits = getsCounter(meterRegistry, "hit");
+        this.redisMisses = getsCounter(meterRegistry, "miss");
+        this.localInvalidations = invalidationCounter(meterRegistry, "local");
+        this.remoteInvalidations = invalidationCounter(meterRegistry, "remote");
+        Gauge.builder("cache.hit.ratio", local, cache -> cache.stats().hitRate())
+                .tags("cache", AppConstants.CACHE_POSTS, "tier", "local")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, PostCache::redisHitRatio)
+                .tags("cache", AppConstants.CACHE_POSTS, "tier", "redis")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = listenerContainer.receive(ChannelTopic.of(CHANNEL))
+                .doOnNext(message -> onInvalidation(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Post cache invalidation subscription failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Returns the post from the local tier, else from Redis, else from the loader, filling the tiers it missed.
+     *
+     * @param loader Loads the post from the database; an empty result is not cached.
+     */
+    public Mono<Post> get(String postId, Function<String, Mono<Post>> loader) {
+        Post cached = local.getIfPresent(postId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return inFlight.computeIfAbsent(postId, id -> load(id, loader));
+    }
+
+    /**
+     * Replaces the counters of a cached post, e.g. after a like, in both tiers.
+     * Completes without error even if Redis is unavailable.
+     */
+    public Mono<Void> updateCounters(String postId, int likeCount, int commentCount) {
+        Post updated = local.asMap().computeIfPresent(postId, (id, post) -> withCounters(post, likeCount, commentCount));
+        // Without a local copy the full post is not at hand, so the shared entry is dropped instead
+        Mono<?> shared = updated != null
+                ? redisTemplate.opsForValue().set(KEY_PREFIX + postId, updated, redisTtl)
+                : redisTemplate.delete(KEY_PREFIX + postId);
+        return shared.then(publishInvalidation(postId))
+                .onErrorResume(ex -> {
+                    log.debug("Failed to update cached counters of post {}: {}", postId, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Drops a post from both tiers and from the local tier of every other instance.
+     * Completes without error even if Redis is unavailable.
+     */
+    public Mono<Void> evict(String postId) {
+        local.invalidate(postId);
+        localInvalidations.increment();
+        return redisTemplate.delete(KEY_PREFIX + postId)
+                .then(publishInvalidation(postId))
+                .onErrorResume(ex -> {
+                    log.debug("Failed to evict post {} from Redis: {}", postId, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Post> load(String postId, Function<String, Mono<Post>> loader) {
+        return redisTemplate.opsForValue().get(KEY_PREFIX + postId)
+                .doOnNext(post -> redisHits.increment())
+                .onErrorResume(ex -> {
+                    log.debug("Redis read of post {} failed, loading from the database: {}", postId, ex.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    redisMisses.increment();
+                    return loader.apply(postId)
+                            .flatMap(post -> redisTemplate.opsForValue().set(KEY_PREFIX + postId, post, redisTtl)
+                                    .onErrorResume(ex -> Mono.just(false))
+                                    .thenReturn(post));
+                }))
+                .doOnNext(post -> local.put(postId, post))
+                .doFinally(signal -> inFlight.remove(postId))
+                .cache();
+    }
+
+    private Mono<Void> publishInvalidation(String postId) {
+        return stringRedisTemplate.convertAndSend(CHANNEL, instanceId + "|" + postId).then();
+    }
+
+    private void onInvalidation(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.startsWith(instanceId + "|")) {
+            return; // Malformed, or published by this instance, whose local tier is already up to date
+        }
+        local.invalidate(message.substring(separator + 1));
+        remoteInvalidations.increment();
+    }
+
+    private double redisHitRatio() {
+        double hits = redisHits.count();
+        double total = hits + redisMisses.count();
+        return total == 0 ? 1.0 : hits / total;
+    }
+
+    private static Post withCounters(Post post, int likeCount, int commentCount) {
+        return Post.builder()
+                .postId(post.getPostId())
+                .clubId(post.getClubId())
+                .content(post.getContent())
+                .authorId(post.getAuthorId())
+                .timestamp(post.getTimestamp())
+                .mediaUrls(post.getMediaUrls())
+                .likeCount(likeCount)
+                .commentCount(commentCount)
+                .build();
+    }
+
+    private static Counter getsCounter(MeterRegistry registry, String result) {
+        return Counter.builder("cache.gets")
+                .tags("cache", AppConstants.CACHE_POSTS, "tier", "redis", "result", result)
+                .description("Post cache lookups that reached Redis, by outcome")
+                .register(registry);
+    }
+
+    private static Counter invalidationCounter(MeterRegistry registry, String source) {
+        return Counter.builder("cache.invalidations")
+                .tags("cache", AppConstants.CACHE_POSTS, "source", source)
+                .description("Posts dropped from the local tier by a write on this or another instance")
+                .register(registry);
+    }
+}
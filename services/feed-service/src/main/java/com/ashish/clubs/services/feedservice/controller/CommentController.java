@@ -0,0 +1,79 @@
+package com.ashish.clubs.services.feedservice.controller;
+
+import com.ashish.clubs.common.config.AppConstants;
+import com.ashish.clubs.common.models.feed.Comment;
+import com.ashish.clubs.common.models.shared.PaginatedResponse;
+import com.ashish.clubs.common.security.CurrentUser;
+import com.ashish.clubs.services.feedservice.service.CommentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping(AppConstants.API_V1_PREFIX + "/comments")
+@RequiredArgsConstructor
+public class CommentController {
+
+    private final CommentService commentService;
+
+    /**
+     * Add a comment to a post, authored by the authenticated user
+     */
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<Comment>> addComment(@RequestBody Comment comment) {
+        return CurrentUser.userId()
+                .flatMap(userId -> {
+                    comment.setAuthorId(userId); // Never trust the author given in the body
+                    return commentService.addComment(comment);
+                })
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Get a post's comments, oldest first, with cursor pagination
+     */
+    @GetMapping("/post/{postId}")
+    public Mono<ResponseEntity<PaginatedResponse<Comment>>> getComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return Mono.defer(() -> commentService.getComments(postId, cursor, size))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Get the first comments of several posts in one request
+     */
+    @GetMapping("/batch")
+    public Mono<ResponseEntity<Map<String, List<Comment>>>> getFirstComments(
+            @RequestParam List<String> postIds,
+            @RequestParam(defaultValue = "3") int limit) {
+        return commentService.getFirstComments(postIds, limit)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Delete one of the authenticated user's comments
+     */
+    @DeleteMapping("/{commentId}")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<Void>> deleteComment(@PathVariable String commentId) {
+        return CurrentUser.userId()
+                .flatMap(userId -> commentService.deleteComment(commentId, userId)
+                        .map(deleted -> deleted
+                                ? ResponseEntity.noContent().<Void>build()
+                                : ResponseEntity.notFound().<Void>build()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+}
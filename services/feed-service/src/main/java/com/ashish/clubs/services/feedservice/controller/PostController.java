@@ -2,20 +2,30 @@ package com.ashish.clubs.services.feedservice.controller;
 
 import com.ashish.clubs.common.config.AppConstants;
 import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.common.models.shared.PaginatedResponse;
+import com.ashish.clubs.common.security.CurrentUser;
 import com.ashish.clubs.services.feedservice.service.PostService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+
 @RestController
 @RequestMapping(AppConstants.API_V1_PREFIX + "/posts")
 @RequiredArgsConstructor
 public class PostController {
 
+    private static final Duration LIVE_HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
     private final PostService postService;
 
     /**
@@ -34,35 +44,129 @@ public class PostController {
      */
     @GetMapping("/{postId}")
     public Mono<ResponseEntity<Post>> getPostById(@PathVariable String postId) {
-        return postService.getPostById(postId)
+        return Mono.defer(() -> postService.getPostById(postId))
                 .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
     }
 
     /**
-     * Get posts by author
+     * Get an author's posts, newest first, with cursor pagination.
      */
     @GetMapping("/author/{authorId}")
-    public Mono<ResponseEntity<Flux<Post>>> getPostsByAuthor(@PathVariable String authorId) {
-        return Mono.just(ResponseEntity.ok(postService.getPostsByAuthor(authorId)));
+    public Mono<ResponseEntity<PaginatedResponse<Post>>> getPostsByAuthor(
+            @PathVariable String authorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
+        return Mono.defer(() -> postService.getPostsByAuthor(authorId, cursor, size, fields))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
     }
 
     /**
-     * Get posts by club
+     * Get a club's posts, newest first, with cursor pagination.
      */
     @GetMapping("/club/{clubId}")
-    public Mono<ResponseEntity<Flux<Post>>> getPostsByClub(@PathVariable String clubId) {
-        return Mono.just(ResponseEntity.ok(postService.getPostsByClub(clubId)));
+    public Mono<ResponseEntity<PaginatedResponse<Post>>> getPostsByClub(
+            @PathVariable String clubId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
+        return Mono.defer(() -> postService.getPostsByClub(clubId, cursor, size, fields))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
     }
 
     /**
-     * Get timeline (all published posts with pagination)
+     * Get timeline (all published posts, newest first) with cursor pagination.
+     * Pass the returned nextCursor to fetch the following page. With {@code fields}, only the listing
+     * fields plus the requested extras are read and returned, e.g. {@code fields=summary,content}.
      */
     @GetMapping("/timeline")
-    public Mono<ResponseEntity<Flux<Post>>> getTimeline(
-            @RequestParam(defaultValue = "0") int page,
+    public Mono<ResponseEntity<PaginatedResponse<Post>>> getTimeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
+        return Mono.defer(() -> postService.getTimeline(cursor, size, fields))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Stream the timeline as NDJSON or server-sent events, one post per line/event, newest first.
+     * Posts are written as they are read from Mongo and reading follows the client's pace.
+     */
+    @GetMapping(value = "/timeline/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Post> streamTimeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(required = false) String fields) {
+        return badCursorAsBadRequest(postService.streamTimeline(cursor, limit, fields));
+    }
+
+    /**
+     * Stream a club's posts as NDJSON or server-sent events, newest first
+     */
+    @GetMapping(value = "/club/{clubId}/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Post> streamPostsByClub(
+            @PathVariable String clubId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(required = false) String fields) {
+        return badCursorAsBadRequest(postService.streamPostsByClub(clubId, cursor, limit, fields));
+    }
+
+    /**
+     * Stream an author's posts as NDJSON or server-sent events, newest first
+     */
+    @GetMapping(value = "/author/{authorId}/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Post> streamPostsByAuthor(
+            @PathVariable String authorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(required = false) String fields) {
+        return badCursorAsBadRequest(postService.streamPostsByAuthor(authorId, cursor, limit, fields));
+    }
+
+    /**
+     * Live server-sent event stream of the posts created in a club from now on, with a comment
+     * heartbeat so idle connections are not closed by proxies
+     */
+    @GetMapping(value = "/club/{clubId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Post>> liveClubPosts(@PathVariable String clubId) {
+        Flux<ServerSentEvent<Post>> posts = postService.liveClubPosts(clubId)
+                .map(post -> ServerSentEvent.<Post>builder(post)
+                        .id(post.getPostId())
+                        .event("post")
+                        .build());
+        Flux<ServerSentEvent<Post>> heartbeat = Flux.interval(LIVE_HEARTBEAT_INTERVAL)
+                .map(tick -> ServerSentEvent.<Post>builder().comment("heartbeat").build());
+        return Flux.merge(posts, heartbeat);
+    }
+
+    /**
+     * Get the trending posts, best first
+     */
+    @GetMapping("/trending")
+    public Mono<ResponseEntity<List<Post>>> getTrending(@RequestParam(defaultValue = "20") int limit) {
+        return postService.getTrending(limit)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get the authenticated user's home feed (posts of the clubs they belong to, newest first) with cursor pagination.
+     */
+    @GetMapping("/home")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<PaginatedResponse<Post>>> getHomeFeed(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-        return Mono.just(ResponseEntity.ok(postService.getAllPublishedPosts(page, size)));
+        return CurrentUser.userId()
+                .flatMap(userId -> postService.getHomeFeed(userId, cursor, size))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
     }
 
     /**
@@ -70,13 +174,18 @@ public class PostController {
      */
     @PostMapping("/{postId}/like")
     @PreAuthorize("isAuthenticated()")
-    public Mono<ResponseEntity<Post>> likePost(
-            @PathVariable String postId,
-            @RequestParam String userId) {
-        return postService.likePost(postId, userId)
+    public Mono<ResponseEntity<Post>> likePost(@PathVariable String postId) {
+        // The like is deduplicated per user, so the user must be the authenticated one, never a parameter
+        return CurrentUser.userId()
+                .flatMap(userId -> postService.likePost(postId, userId))
                 .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
                 .onErrorResume(ex -> Mono.just(ResponseEntity.badRequest().build()));
     }
-}
 
+    private static Flux<Post> badCursorAsBadRequest(Flux<Post> posts) {
+        // Nothing has been written when the cursor or fields selector is rejected, so the error still becomes a 400 response
+        return posts.onErrorMap(IllegalArgumentException.class,
+                ex -> new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ashish.clubs.services.feedservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Feed-service copy of an active club membership, maintained from club-events.
+ * Used to find the timelines a post fans out to and the clubs a home feed pulls from.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "club_members")
+@CompoundIndex(name = "idx_club_user", def = "{'clubId': 1, 'userId': 1}", unique = true) // Fan-out scan
+public class ClubMemberDocument {
+    @Id
+    private String id; // clubId:userId
+    private String clubId;
+    @Indexed
+    private String userId;
+    private Instant joinedAt;
+}
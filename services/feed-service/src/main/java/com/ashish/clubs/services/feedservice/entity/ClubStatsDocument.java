@@ -0,0 +1,26 @@
+package com.ashish.clubs.services.feedservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Active member count per club, kept next to {@link ClubMemberDocument} so the fan-out path can tell
+ * large clubs apart without counting their members.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "club_stats")
+public class ClubStatsDocument {
+    @Id
+    private String clubId;
+    private long memberCount;
+    private Instant updatedAt;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -15,6 +16,7 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder
 @Document(collection = "comments")
+@CompoundIndex(name = "idx_post_created_id", def = "{'post_id': 1, 'createdAt': 1, '_id': 1}") // Comment thread keyset pagination
 public class CommentDocument {
     @Id
     private String commentId;
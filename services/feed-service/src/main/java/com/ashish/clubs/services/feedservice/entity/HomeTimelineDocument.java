@@ -0,0 +1,39 @@
+package com.ashish.clubs.services.feedservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Materialized home feed of one user: the newest posts of the clubs the user belongs to, newest first,
+ * capped at a fixed number of entries. Filled by fan-out on write; posts of very large clubs are not
+ * fanned out and are pulled at read time instead.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "home_timelines")
+public class HomeTimelineDocument {
+    @Id
+    private String userId;
+    private List<Entry> entries; // Sorted by (createdAt desc, postId desc)
+    private Instant updatedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private UUID postId;
+        private String clubId; // Lets the club's entries be dropped when the user leaves it
+        private Instant createdAt;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -15,6 +16,7 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder
 @Document(collection = "likes")
+@CompoundIndex(name = "uniq_like_entity_user", def = "{'entity_id': 1, 'user_id': 1}", unique = true) // One like per user and entity
 public class LikeDocument {
     @Id
     private String likeId;
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -16,6 +18,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "idx_status_created_id", def = "{'status': 1, 'createdAt': -1, '_id': -1}"), // Timeline keyset pagination
+        @CompoundIndex(name = "idx_club_created_id", def = "{'clubId': 1, 'createdAt': -1, '_id': -1}"), // Club feeds, home feed pull path
+        @CompoundIndex(name = "idx_user_created_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}") // Author feed streams
+})
 public class PostDocument {
     @Id
     private UUID postId;
@@ -0,0 +1,100 @@
+package com.ashish.clubs.services.feedservice.listener;
+
+import com.ashish.clubs.common.config.AppConstants;
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.models.feed.Comment;
+import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.services.feedservice.service.LivePostStream;
+import com.ashish.clubs.services.feedservice.service.PostService;
+import com.ashish.clubs.services.feedservice.service.TrendingRankingEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Feeds feed-events into the in-memory state of this instance: post, like and comment events into the
+ * {@link TrendingRankingEngine}, new posts into the {@link LivePostStream}.
+ * <p>
+ * That state is kept by every instance, so each instance must see every event: the listener uses a
+ * consumer group of its own, named after {@code application.feed.local-consumer.instance-id}. The id must be
+ * unique among running instances and should survive restarts, so a restart reuses its group instead of
+ * leaving another one behind on the brokers. The committed offsets are ignored: every assignment seeks
+ * to the end, as the events missed while down are covered by seeding the ranking on startup from the
+ * posts created within the warm-up window.
+ */
+@Slf4j
+@Component
+public class LocalFeedEventListener implements ConsumerSeekAware {
+
+    private final TrendingRankingEngine rankingEngine;
+    private final LivePostStream livePostStream;
+    private final PostService postService;
+    private final Duration warmUpWindow;
+    private final int warmUpLimit;
+
+    public LocalFeedEventListener(TrendingRankingEngine rankingEngine,
+                                  LivePostStream livePostStream,
+                                  PostService postService,
+                                  @Value("${application.feed.trending.warm-up-window:PT48H}") Duration warmUpWindow,
+                                  @Value("${application.feed.trending.max-tracked:10000}") int warmUpLimit) {
+        this.rankingEngine = rankingEngine;
+        this.livePostStream = livePostStream;
+        this.postService = postService;
+        this.warmUpWindow = warmUpWindow;
+        this.warmUpLimit = warmUpLimit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        postService.getRecentPosts(Instant.now().minus(warmUpWindow), warmUpLimit)
+                .doOnNext(rankingEngine::seed)
+                .count()
+                .subscribe(
+                        count -> log.info("Seeded trending ranking with {} recent posts", count),
+                        ex -> log.error("Failed to seed trending ranking", ex));
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    @KafkaListener(
+            topics = AppConstants.KAFKA_TOPIC_FEED_EVENTS,
+            groupId = "${spring.application.name}-local-${application.feed.local-consumer.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void onFeedEvent(DomainEvent event) {
+        if (event.getEventType() == null) {
+            return;
+        }
+        Instant at = event.getTimestamp() != null ? event.getTimestamp() : Instant.now();
+        switch (event.getEventType()) {
+            case "POST_CREATED" -> {
+                if (event.getPayload() instanceof Post post) {
+                    rankingEngine.onPostCreated(post);
+                    livePostStream.publish(post);
+                }
+            }
+            case "POST_LIKED" -> rankingEngine.onLiked(UUID.fromString(event.getEntityId()), 1, at,
+                    event.getPayload() instanceof Post counters ? counters : null);
+            case "COMMENT_CREATED" -> {
+                if (event.getPayload() instanceof Comment comment) {
+                    rankingEngine.onCommented(UUID.fromString(comment.getPostId()), 1, at);
+                }
+            }
+            default -> {
+                // Not ranked
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ashish.clubs.services.feedservice.listener;
+
+import com.ashish.clubs.common.config.AppConstants;
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.models.club.Membership;
+import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.services.feedservice.service.HomeTimelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the home timelines up to date from feed-events (new posts) and club-events (memberships).
+ * Handlers return the Mono of their writes; the listener container commits the offset once it completes,
+ * so a failed write is redelivered. All writes are idempotent.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TimelineEventListener {
+
+    private final HomeTimelineService homeTimelineService;
+
+    @KafkaListener(topics = AppConstants.KAFKA_TOPIC_FEED_EVENTS)
+    public Mono<Void> onFeedEvent(DomainEvent event) {
+        if (!"POST_CREATED".equals(event.getEventType()) || !(event.getPayload() instanceof Post post)) {
+            return Mono.empty();
+        }
+        return homeTimelineService.fanOut(post)
+                .doOnError(ex -> log.error("Failed to fan out post {}", post.getPostId(), ex));
+    }
+
+    @KafkaListener(topics = AppConstants.KAFKA_TOPIC_CLUB_EVENTS)
+    public Mono<Void> onClubEvent(DomainEvent event) {
+        if (event.getEventType() == null || !(event.getPayload() instanceof Membership membership)) {
+            return Mono.empty();
+        }
+        Mono<Void> update = switch (event.getEventType()) {
+            case "CLUB_MEMBERSHIP_APPROVED" -> homeTimelineService.addMember(membership.getClubId(), membership.getUserId());
+            case "CLUB_MEMBER_LEFT", "CLUB_MEMBER_BANNED" -> homeTimelineService.removeMember(membership.getClubId(), membership.getUserId());
+            default -> Mono.empty();
+        };
+        return update.doOnError(ex -> log.error("Failed to apply {} for user {} in club {}",
+                event.getEventType(), membership.getUserId(), membership.getClubId(), ex));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.ClubMemberDocument;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ClubMemberRepository extends ReactiveMongoRepository<ClubMemberDocument, String>, ClubMemberRepositoryCustom {
+    Flux<ClubMemberDocument> findByClubId(String clubId);
+    Flux<ClubMemberDocument> findByUserId(String userId);
+}
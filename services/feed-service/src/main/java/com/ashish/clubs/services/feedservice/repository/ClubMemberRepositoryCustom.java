@@ -0,0 +1,37 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Membership writes that keep the club_stats member counts in step with club_members.
+ */
+public interface ClubMemberRepositoryCustom {
+
+    /**
+     * Records an active membership. Idempotent: a membership that is already recorded is left unchanged.
+     *
+     * @return Mono emitting true if the membership was new (and the club's member count incremented)
+     */
+    Mono<Boolean> addMember(String clubId, String userId, Instant joinedAt);
+
+    /**
+     * Removes a membership. Idempotent like {@link #addMember}.
+     *
+     * @return Mono emitting true if a membership was removed (and the club's member count decremented)
+     */
+    Mono<Boolean> removeMember(String clubId, String userId);
+
+    /**
+     * @return Mono emitting the number of active members of the club, 0 if none were recorded
+     */
+    Mono<Long> findMemberCount(String clubId);
+
+    /**
+     * @return The ids among {@code clubIds} of the clubs with at least {@code minMembers} members
+     */
+    Flux<String> findClubIdsWithMembersAtLeast(Collection<String> clubIds, long minMembers);
+}
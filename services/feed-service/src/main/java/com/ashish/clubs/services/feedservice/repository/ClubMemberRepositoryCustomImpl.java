@@ -0,0 +1,77 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.ClubMemberDocument;
+import com.ashish.clubs.services.feedservice.entity.ClubStatsDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class ClubMemberRepositoryCustomImpl implements ClubMemberRepositoryCustom {
+
+    private static final String MEMBER_COUNT = "memberCount";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Boolean> addMember(String clubId, String userId, Instant joinedAt) {
+        Update update = new Update()
+                .setOnInsert("clubId", clubId)
+                .setOnInsert("userId", userId)
+                .setOnInsert("joinedAt", joinedAt);
+        // Only the call that actually inserts the membership moves the counter, so redelivered events are harmless
+        return mongoTemplate.upsert(memberQuery(clubId, userId), update, ClubMemberDocument.class)
+                .map(result -> result.getUpsertedId() != null)
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(false)) // Concurrent upsert of the same membership
+                .flatMap(inserted -> inserted
+                        ? incrementMemberCount(clubId, 1).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    @Override
+    public Mono<Boolean> removeMember(String clubId, String userId) {
+        return mongoTemplate.remove(memberQuery(clubId, userId), ClubMemberDocument.class)
+                .map(result -> result.getDeletedCount() > 0)
+                .flatMap(removed -> removed
+                        ? incrementMemberCount(clubId, -1).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    @Override
+    public Mono<Long> findMemberCount(String clubId) {
+        return mongoTemplate.findById(clubId, ClubStatsDocument.class)
+                .map(ClubStatsDocument::getMemberCount)
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Flux<String> findClubIdsWithMembersAtLeast(Collection<String> clubIds, long minMembers) {
+        if (clubIds.isEmpty()) {
+            return Flux.empty();
+        }
+        Query query = Query.query(Criteria.where("_id").in(clubIds).and(MEMBER_COUNT).gte(minMembers));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, ClubStatsDocument.class)
+                .map(ClubStatsDocument::getClubId);
+    }
+
+    private Mono<Void> incrementMemberCount(String clubId, long delta) {
+        return mongoTemplate.upsert(
+                        Query.query(Criteria.where("_id").is(clubId)),
+                        new Update().inc(MEMBER_COUNT, delta).set("updatedAt", Instant.now()),
+                        ClubStatsDocument.class)
+                .then();
+    }
+
+    private static Query memberQuery(String clubId, String userId) {
+        return Query.query(Criteria.where("_id").is(clubId + ":" + userId));
+    }
+}
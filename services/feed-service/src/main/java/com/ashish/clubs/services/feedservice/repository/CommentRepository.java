@@ -0,0 +1,9 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.CommentDocument;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CommentRepository extends ReactiveMongoRepository<CommentDocument, String>, CommentRepositoryCustom {
+}
@@ -0,0 +1,37 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.CommentDocument;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface CommentRepositoryCustom {
+
+    /**
+     * Reads one page of a post's published comments ordered by (createdAt asc, _id asc), starting after the
+     * given position. Served by a range scan on the (post_id, createdAt, _id) index.
+     *
+     * @param afterCreatedAt createdAt of the last comment already returned, or null for the first page
+     * @param afterCommentId id of the last comment already returned, or null for the first page
+     * @param limit          maximum number of comments to return
+     */
+    Flux<CommentDocument> findPublishedPage(String postId, Instant afterCreatedAt, String afterCommentId, int limit);
+
+    /**
+     * Reads the first {@code limit} published comments of each post in a single aggregation: one
+     * index-bounded branch per post, combined with $unionWith, so no post reads more than {@code limit}
+     * comments however long its thread is.
+     *
+     * @return The comments, grouped by post in the order of {@code postIds}, oldest first within a post
+     */
+    Flux<CommentDocument> findFirstPublished(Collection<String> postIds, int limit);
+
+    /**
+     * Marks a published comment as deleted, if it was written by the given user.
+     *
+     * @return Mono emitting the deleted comment, or empty if there was no such published comment
+     */
+    Mono<CommentDocument> markDeleted(String commentId, String authorId);
+}
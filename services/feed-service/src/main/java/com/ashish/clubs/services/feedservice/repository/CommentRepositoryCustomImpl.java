@@ -0,0 +1,85 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.CommentDocument;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CommentRepositoryCustomImpl implements CommentRepositoryCustom {
+
+    private static final String COLLECTION = "comments";
+    private static final String PUBLISHED = "PUBLISHED";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<CommentDocument> findPublishedPage(String postId, Instant afterCreatedAt, String afterCommentId, int limit) {
+        Criteria criteria = Criteria.where("post_id").is(postId).and("status").is(PUBLISHED);
+        if (afterCreatedAt != null && afterCommentId != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").gt(afterCreatedAt),
+                    Criteria.where("createdAt").is(afterCreatedAt).and("_id").gt(afterCommentId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, CommentDocument.class);
+    }
+
+    @Override
+    public Flux<CommentDocument> findFirstPublished(Collection<String> postIds, int limit) {
+        if (postIds.isEmpty()) {
+            return Flux.empty();
+        }
+        Iterator<String> posts = postIds.iterator();
+        List<AggregationOperation> stages = new ArrayList<>();
+
+        // First post: plain stages on the comments collection
+        String first = posts.next();
+        stages.add(Aggregation.match(Criteria.where("post_id").is(first).and("status").is(PUBLISHED)));
+        stages.add(Aggregation.sort(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id"))));
+        stages.add(Aggregation.limit(limit));
+
+        // Every other post: the same bounded read as a $unionWith sub-pipeline, appended in order
+        while (posts.hasNext()) {
+            List<Document> pipeline = List.of(
+                    new Document("$match", new Document("post_id", posts.next()).append("status", PUBLISHED)),
+                    new Document("$sort", new Document("createdAt", 1).append("_id", 1)),
+                    new Document("$limit", limit));
+            stages.add(Aggregation.stage(new Document("$unionWith",
+                    new Document("coll", COLLECTION).append("pipeline", pipeline))));
+        }
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), COLLECTION, CommentDocument.class);
+    }
+
+    @Override
+    public Mono<CommentDocument> markDeleted(String commentId, String authorId) {
+        Query query = Query.query(Criteria.where("_id").is(commentId)
+                .and("author_id").is(authorId)
+                .and("status").is(PUBLISHED));
+        Instant now = Instant.now();
+        // Conditional on the current status, so only one of several concurrent deletes succeeds
+        return mongoTemplate.findAndModify(
+                query,
+                new Update().set("status", "DELETED").set("updatedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                CommentDocument.class);
+    }
+}
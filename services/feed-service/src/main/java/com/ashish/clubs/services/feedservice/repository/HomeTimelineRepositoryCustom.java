@@ -0,0 +1,37 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.HomeTimelineDocument.Entry;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Capped, server-side updates of the home_timelines lists. Every push keeps the list sorted by
+ * (createdAt desc, postId desc) and trims it to {@code maxEntries}, so a timeline never grows past its cap.
+ */
+public interface HomeTimelineRepositoryCustom {
+
+    /**
+     * Creates an empty timeline for the user unless one exists. Fan-out only writes to existing timelines.
+     */
+    Mono<Void> createIfAbsent(String userId);
+
+    /**
+     * Adds one post to the timelines of many users in a single multi-document update.
+     * Timelines that already hold the post are skipped, so a redelivered event adds nothing.
+     *
+     * @return Mono emitting the number of timelines updated
+     */
+    Mono<Long> pushEntry(Collection<String> userIds, Entry entry, int maxEntries);
+
+    /**
+     * Adds several posts to one user's timeline, replacing entries for the same posts.
+     */
+    Mono<Void> pushEntries(String userId, List<Entry> entries, int maxEntries);
+
+    /**
+     * Removes all entries of a club from the user's timeline.
+     */
+    Mono<Void> removeClubEntries(String userId, String clubId);
+}
@@ -0,0 +1,78 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.HomeTimelineDocument;
+import com.ashish.clubs.services.feedservice.entity.HomeTimelineDocument.Entry;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class HomeTimelineRepositoryCustomImpl implements HomeTimelineRepositoryCustom {
+
+    private static final String ENTRIES = "entries";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> createIfAbsent(String userId) {
+        Update update = new Update()
+                .setOnInsert(ENTRIES, List.of())
+                .setOnInsert("updatedAt", Instant.now());
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)), update, HomeTimelineDocument.class)
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public Mono<Long> pushEntry(Collection<String> userIds, Entry entry, int maxEntries) {
+        if (userIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Query query = Query.query(Criteria.where("_id").in(userIds).and(ENTRIES + ".postId").ne(entry.getPostId()));
+        return mongoTemplate.updateMulti(query, cappedPush(List.of(entry), maxEntries), HomeTimelineDocument.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    @Override
+    public Mono<Void> pushEntries(String userId, List<Entry> entries, int maxEntries) {
+        if (entries.isEmpty()) {
+            return Mono.empty();
+        }
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        List<UUID> postIds = entries.stream().map(Entry::getPostId).toList();
+        // $pull and $push cannot target the same array in one update
+        Update pull = new Update().pull(ENTRIES, new Document("postId", new Document("$in", postIds)));
+        return mongoTemplate.updateFirst(query, pull, HomeTimelineDocument.class)
+                .then(mongoTemplate.updateFirst(query, cappedPush(entries, maxEntries), HomeTimelineDocument.class))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> removeClubEntries(String userId, String clubId) {
+        Update update = new Update()
+                .pull(ENTRIES, new Document("clubId", clubId))
+                .set("updatedAt", Instant.now());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)), update, HomeTimelineDocument.class)
+                .then();
+    }
+
+    private static Update cappedPush(List<Entry> entries, int maxEntries) {
+        Update update = new Update().set("updatedAt", Instant.now());
+        update.push(ENTRIES)
+                .sort(Sort.by(Sort.Direction.DESC, "createdAt", "postId")) // The feed order, as the pull query sorts
+                .slice(maxEntries)
+                .each(entries.toArray());
+        return update;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.LikeDocument;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface LikeRepository extends ReactiveMongoRepository<LikeDocument, String> {
+    Mono<Boolean> existsByEntityIdAndUserId(String entityId, String userId);
+    Flux<LikeDocument> findByEntityId(String entityId);
+    Mono<Void> deleteByEntityIdAndUserId(String entityId, String userId);
+}
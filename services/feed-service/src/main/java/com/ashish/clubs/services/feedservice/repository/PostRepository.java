@@ -1,7 +1,6 @@
 package com.ashish.clubs.services.feedservice.repository;
 
 import com.ashish.clubs.services.feedservice.entity.PostDocument;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -10,10 +9,8 @@ import reactor.core.publisher.Mono;
 import java.util.UUID;
 
 @Repository
-public interface PostRepository extends ReactiveMongoRepository<PostDocument, UUID> {
-    Flux<PostDocument> findByClubId(String clubId);
+public interface PostRepository extends ReactiveMongoRepository<PostDocument, UUID>, PostRepositoryCustom {
     Flux<PostDocument> findByUserId(String userId);
     Mono<PostDocument> findByPostId(String postId);
-    Flux<PostDocument> findAllBy(Pageable pageable);
 }
 
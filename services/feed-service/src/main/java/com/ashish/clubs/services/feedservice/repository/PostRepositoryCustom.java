@@ -0,0 +1,114 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.PostDocument;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Atomic counter updates on posts, executed server-side so concurrent writers never lose an increment.
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * Atomically adds {@code delta} to the post's like count.
+     *
+     * @return The post with only its id and counters populated, or empty if the post does not exist.
+     */
+    Mono<PostDocument> incrementLikeCount(UUID postId, long delta);
+
+    /**
+     * @return The post with only its id and counters populated, or empty if the post does not exist.
+     */
+    Mono<PostDocument> findCounters(UUID postId);
+
+    /**
+     * Reads one page of published posts ordered by (createdAt desc, _id desc), starting after the given
+     * position. Served by a range scan on the (status, createdAt, _id) index, whatever the page depth.
+     *
+     * @param afterCreatedAt createdAt of the last post already returned, or null for the first page
+     * @param afterPostId    id of the last post already returned, or null for the first page
+     * @param limit          maximum number of posts to return
+     */
+    default Flux<PostDocument> findPublishedPage(Instant afterCreatedAt, UUID afterPostId, int limit) {
+        return findPublishedPage(afterCreatedAt, afterPostId, limit, null);
+    }
+
+    /**
+     * Like {@link #findPublishedPage(Instant, UUID, int)}, reading only the given fields.
+     *
+     * @param fields Document fields to read (the sort keys are always read), or null for whole documents
+     */
+    Flux<PostDocument> findPublishedPage(Instant afterCreatedAt, UUID afterPostId, int limit, Collection<String> fields);
+
+    /**
+     * Like {@link #findPublishedPage} but restricted to posts of the given clubs, served by the
+     * (clubId, createdAt, _id) index; several clubs are merged by the server in sort order.
+     */
+    default Flux<PostDocument> findPublishedClubPage(Collection<String> clubIds, Instant afterCreatedAt, UUID afterPostId, int limit) {
+        return findPublishedClubPage(clubIds, afterCreatedAt, afterPostId, limit, null);
+    }
+
+    Flux<PostDocument> findPublishedClubPage(Collection<String> clubIds, Instant afterCreatedAt, UUID afterPostId, int limit,
+                                             Collection<String> fields);
+
+    /**
+     * Like {@link #findPublishedPage} but restricted to posts of one author, served by the
+     * (userId, createdAt, _id) index.
+     */
+    default Flux<PostDocument> findPublishedAuthorPage(String userId, Instant afterCreatedAt, UUID afterPostId, int limit) {
+        return findPublishedAuthorPage(userId, afterCreatedAt, afterPostId, limit, null);
+    }
+
+    Flux<PostDocument> findPublishedAuthorPage(String userId, Instant afterCreatedAt, UUID afterPostId, int limit,
+                                               Collection<String> fields);
+
+    /**
+     * Applies coalesced counter deltas to many posts in one unordered bulk write ($inc per post).
+     *
+     * @return Mono emitting the number of posts modified
+     */
+    Mono<Integer> incrementCounters(Map<UUID, CounterDelta> deltas);
+
+    /**
+     * Ids of posts that were liked, commented on or had a comment deleted since the given instant.
+     */
+    Flux<UUID> findPostIdsWithActivitySince(Instant since);
+
+    /**
+     * @return Mono emitting true if the post was liked, commented on or had a comment deleted since the given instant
+     */
+    Mono<Boolean> hasActivitySince(UUID postId, Instant since);
+
+    /**
+     * Counts a post's likes and live comments in the likes and comments collections.
+     */
+    Mono<CounterTotals> countActivity(UUID postId);
+
+    /**
+     * Overwrites a post's counters.
+     *
+     * @return Mono emitting the post with only its id and counters populated, or empty if the post does not exist.
+     */
+    Mono<PostDocument> setCounters(UUID postId, long likes, long comments);
+
+    /**
+     * A pending change to a post's counters.
+     */
+    record CounterDelta(long likes, long comments) {
+
+        public boolean isZero() {
+            return likes == 0 && comments == 0;
+        }
+    }
+
+    /**
+     * A post's like and comment counts as recorded in the likes and comments collections.
+     */
+    record CounterTotals(long likes, long comments) {
+    }
+}
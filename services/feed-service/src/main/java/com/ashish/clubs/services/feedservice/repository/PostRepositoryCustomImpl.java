@@ -0,0 +1,152 @@
+package com.ashish.clubs.services.feedservice.repository;
+
+import com.ashish.clubs.services.feedservice.entity.CommentDocument;
+import com.ashish.clubs.services.feedservice.entity.LikeDocument;
+import com.ashish.clubs.services.feedservice.entity.PostDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private static final String LIKE_COUNT = "likeCount";
+    private static final String COMMENT_COUNT = "commentCount";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<PostDocument> incrementLikeCount(UUID postId, long delta) {
+        // Single findAndModify: $inc runs on the server and only the counters travel back
+        return mongoTemplate.findAndModify(
+                countersQuery(postId),
+                new Update().inc(LIKE_COUNT, delta).set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                PostDocument.class);
+    }
+
+    @Override
+    public Mono<PostDocument> findCounters(UUID postId) {
+        return mongoTemplate.findOne(countersQuery(postId), PostDocument.class);
+    }
+
+    @Override
+    public Flux<PostDocument> findPublishedPage(Instant afterCreatedAt, UUID afterPostId, int limit, Collection<String> fields) {
+        return findPage(Criteria.where("status").is("PUBLISHED"), afterCreatedAt, afterPostId, limit, fields);
+    }
+
+    @Override
+    public Flux<PostDocument> findPublishedClubPage(Collection<String> clubIds, Instant afterCreatedAt, UUID afterPostId, int limit,
+                                                    Collection<String> fields) {
+        if (clubIds.isEmpty()) {
+            return Flux.empty();
+        }
+        Criteria criteria = Criteria.where("clubId").in(clubIds).and("status").is("PUBLISHED");
+        return findPage(criteria, afterCreatedAt, afterPostId, limit, fields);
+    }
+
+    @Override
+    public Flux<PostDocument> findPublishedAuthorPage(String userId, Instant afterCreatedAt, UUID afterPostId, int limit,
+                                                      Collection<String> fields) {
+        Criteria criteria = Criteria.where("userId").is(userId).and("status").is("PUBLISHED");
+        return findPage(criteria, afterCreatedAt, afterPostId, limit, fields);
+    }
+
+    @Override
+    public Mono<Integer> incrementCounters(Map<UUID, CounterDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.just(0);
+        }
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostDocument.class);
+        Instant now = Instant.now();
+        deltas.forEach((postId, delta) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(postId)),
+                new Update().inc(LIKE_COUNT, delta.likes()).inc(COMMENT_COUNT, delta.comments()).set("updatedAt", now)));
+        return bulk.execute().map(result -> result.getModifiedCount());
+    }
+
+    @Override
+    public Flux<UUID> findPostIdsWithActivitySince(Instant since) {
+        Flux<String> liked = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("entity_type").is("POST").and("createdAt").gte(since)),
+                "entity_id", LikeDocument.class, String.class);
+        // updatedAt covers both new and deleted comments
+        Flux<String> commented = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("updatedAt").gte(since)),
+                "post_id", CommentDocument.class, String.class);
+        return Flux.concat(liked, commented)
+                .distinct()
+                .map(UUID::fromString);
+    }
+
+    @Override
+    public Mono<Boolean> hasActivitySince(UUID postId, Instant since) {
+        Mono<Boolean> liked = mongoTemplate.exists(
+                Query.query(Criteria.where("entity_id").is(postId.toString()).and("entity_type").is("POST")
+                        .and("createdAt").gte(since)),
+                LikeDocument.class);
+        Mono<Boolean> commented = mongoTemplate.exists(
+                Query.query(Criteria.where("post_id").is(postId.toString()).and("updatedAt").gte(since)),
+                CommentDocument.class);
+        return liked.flatMap(found -> found ? Mono.just(true) : commented);
+    }
+
+    @Override
+    public Mono<CounterTotals> countActivity(UUID postId) {
+        Mono<Long> likes = mongoTemplate.count(
+                Query.query(Criteria.where("entity_id").is(postId.toString()).and("entity_type").is("POST")),
+                LikeDocument.class);
+        Mono<Long> comments = mongoTemplate.count(
+                Query.query(Criteria.where("post_id").is(postId.toString()).and("status").ne("DELETED")),
+                CommentDocument.class);
+        return Mono.zip(likes, comments, CounterTotals::new);
+    }
+
+    @Override
+    public Mono<PostDocument> setCounters(UUID postId, long likes, long comments) {
+        return mongoTemplate.findAndModify(
+                countersQuery(postId),
+                new Update().set(LIKE_COUNT, likes).set(COMMENT_COUNT, comments),
+                FindAndModifyOptions.options().returnNew(true),
+                PostDocument.class);
+    }
+
+    /**
+     * Keyset page in (createdAt desc, _id desc) order, starting after the given position if there is one.
+     * With {@code fields}, only those fields and the sort keys are read from the server.
+     */
+    private Flux<PostDocument> findPage(Criteria criteria, Instant afterCreatedAt, UUID afterPostId, int limit,
+                                        Collection<String> fields) {
+        if (afterCreatedAt != null && afterPostId != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(afterCreatedAt),
+                    Criteria.where("createdAt").is(afterCreatedAt).and("_id").lt(afterPostId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")))
+                .limit(limit);
+        if (fields != null) {
+            query.fields().include("_id", "createdAt").include(fields.toArray(String[]::new));
+        }
+        return mongoTemplate.find(query, PostDocument.class);
+    }
+
+    private static Query countersQuery(UUID postId) {
+        Query query = Query.query(Criteria.where("_id").is(postId));
+        query.fields().include(LIKE_COUNT, COMMENT_COUNT);
+        return query;
+    }
+}
@@ -0,0 +1,183 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.common.config.AppConstants;
+import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.messaging.producer.DeliveryMode;
+import com.ashish.clubs.common.messaging.producer.KafkaEventProducer;
+import com.ashish.clubs.common.models.feed.Comment;
+import com.ashish.clubs.common.models.shared.PaginatedResponse;
+import com.ashish.clubs.services.feedservice.cache.PostCache;
+import com.ashish.clubs.services.feedservice.entity.CommentDocument;
+import com.ashish.clubs.services.feedservice.repository.CommentRepository;
+import com.ashish.clubs.services.feedservice.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Comments on posts.
+ * <p>
+ * The comments collection is the source of truth for comment counts: a comment is stored first, then
+ * its +1 (or -1 when deleted) goes through {@link PostCounterBuffer} as a server-side $inc, the same way
+ * likes are counted. Deletion is a conditional status change, so a comment is uncounted at most once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CommentService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_POSTS = 100;
+    private static final int MAX_BATCH_COMMENTS = 20;
+
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final PostCounterBuffer postCounterBuffer;
+    private final PostCache postCache;
+    private final KafkaEventProducer kafkaEventProducer;
+
+    /**
+     * Add a comment to a post
+     */
+    public Mono<Comment> addComment(Comment comment) {
+        log.info("User {} commenting on post {}", comment.getAuthorId(), comment.getPostId());
+
+        UUID postId = UUID.fromString(comment.getPostId());
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS); // Mongo precision, so cursors match the stored key
+        CommentDocument document = CommentDocument.builder()
+                .commentId(UUID.randomUUID().toString())
+                .postId(comment.getPostId())
+                .authorId(comment.getAuthorId())
+                .content(comment.getContent())
+                .timestamp(now)
+                .status("PUBLISHED")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        return postRepository.findCounters(postId)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Post not found")))
+                .then(commentRepository.insert(document))
+                .map(saved -> {
+                    postCounterBuffer.addComments(postId, 1);
+                    return documentToModel(saved);
+                })
+                .flatMap(saved -> postCache.evict(saved.getPostId()) // Cached commentCount is now stale
+                        .then(publishCommentEvent("COMMENT_CREATED", saved)));
+    }
+
+    /**
+     * Get a page of a post's comments, oldest first, using keyset pagination.
+     *
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size   Page size, capped at {@link #MAX_PAGE_SIZE}
+     */
+    public Mono<PaginatedResponse<Comment>> getComments(String postId, String cursor, int size) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        return commentRepository.findPublishedPage(
+                        postId,
+                        after != null ? after.createdAt() : null,
+                        after != null ? after.id().toString() : null,
+                        pageSize + 1)
+                .collectList()
+                .map(documents -> toPage(documents, pageSize, after == null));
+    }
+
+    /**
+     * Get the first comments of many posts at once, e.g. to render a page of the timeline.
+     *
+     * @param postIds The posts, at most {@link #MAX_BATCH_POSTS}
+     * @param limit   Comments per post, capped at {@link #MAX_BATCH_COMMENTS}
+     * @return Comments by post id, in the order of {@code postIds}; posts without comments map to an empty list
+     */
+    public Mono<Map<String, List<Comment>>> getFirstComments(List<String> postIds, int limit) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(postIds);
+        if (distinct.size() > MAX_BATCH_POSTS) {
+            return Mono.error(new IllegalArgumentException("At most " + MAX_BATCH_POSTS + " posts per batch"));
+        }
+        int perPost = Math.max(1, Math.min(limit, MAX_BATCH_COMMENTS));
+
+        return commentRepository.findFirstPublished(distinct, perPost)
+                .collectList()
+                .map(documents -> {
+                    Map<String, List<Comment>> byPost = new LinkedHashMap<>();
+                    distinct.forEach(postId -> byPost.put(postId, new ArrayList<>()));
+                    documents.forEach(doc -> byPost.get(doc.getPostId()).add(documentToModel(doc)));
+                    return byPost;
+                });
+    }
+
+    /**
+     * Delete a comment. Only its author can delete it.
+     *
+     * @return Mono emitting true if the comment was deleted, false if there was no such comment of the user
+     */
+    public Mono<Boolean> deleteComment(String commentId, String userId) {
+        log.info("User {} deleting comment {}", userId, commentId);
+
+        return commentRepository.markDeleted(commentId, userId)
+                .flatMap(deleted -> {
+                    postCounterBuffer.addComments(UUID.fromString(deleted.getPostId()), -1);
+                    return postCache.evict(deleted.getPostId())
+                            .then(publishCommentEvent("COMMENT_DELETED", documentToModel(deleted)));
+                })
+                .map(deleted -> true)
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Comment> publishCommentEvent(String eventType, Comment comment) {
+        DomainEvent event = DomainEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .sourceService("feed-service")
+                .entityId(comment.getCommentId())
+                .entityType("COMMENT")
+                .actorId(comment.getAuthorId())
+                .payload(comment)
+                .timestamp(Instant.now())
+                .build();
+
+        // The comment and its count are already stored, the event is a notification
+        return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_FEED_EVENTS, event, DeliveryMode.BEST_EFFORT)
+                .thenReturn(comment)
+                .doOnError(ex -> log.error("Failed to publish {} event", eventType, ex));
+    }
+
+    // Helper methods
+
+    private PaginatedResponse<Comment> toPage(List<CommentDocument> documents, int pageSize, boolean first) {
+        boolean hasNext = documents.size() > pageSize;
+        List<CommentDocument> page = hasNext ? documents.subList(0, pageSize) : documents;
+        CommentDocument last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return PaginatedResponse.<Comment>builder()
+                .content(page.stream().map(this::documentToModel).toList())
+                .size(pageSize)
+                .first(first)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new FeedCursor(last.getCreatedAt(), UUID.fromString(last.getCommentId())).encode() : null)
+                .build();
+    }
+
+    private Comment documentToModel(CommentDocument doc) {
+        return Comment.builder()
+                .commentId(doc.getCommentId())
+                .postId(doc.getPostId())
+                .authorId(doc.getAuthorId())
+                .content(doc.getContent())
+                .timestamp(doc.getCreatedAt())
+                .build();
+    }
+}
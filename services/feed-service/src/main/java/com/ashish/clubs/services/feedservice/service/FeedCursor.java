@@ -0,0 +1,57 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position in a list ordered by (createdAt, id), such as a feed (newest first) or a comment thread
+ * (oldest first): the sort key of the last item returned. Clients receive it as an opaque base64url
+ * string and pass it back to fetch the next page, which is read with a range condition on the index
+ * instead of skipping over the previous pages.
+ *
+ * @param createdAt The createdAt of the last item on the previous page.
+ * @param id        The id of that item, breaking ties between items created in the same millisecond.
+ */
+public record FeedCursor(Instant createdAt, UUID id) {
+
+    /**
+     * Ascending order of ids as MongoDB sorts them. Ids are stored as binary in the java-legacy UUID
+     * representation, each half with its bytes reversed, and compared byte by byte as unsigned values, which
+     * differs from {@link UUID#compareTo}. Lists merged or filtered in memory must use this order to agree
+     * with a range condition on the ids in a query.
+     */
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing((UUID id) -> Long.reverseBytes(id.getMostSignificantBits()), Long::compareUnsigned)
+            .thenComparing(id -> Long.reverseBytes(id.getLeastSignificantBits()), Long::compareUnsigned);
+
+    public String encode() {
+        String raw = createdAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor The string produced by {@link #encode()}; null or blank for the first page.
+     * @return The decoded cursor, or null for the first page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static FeedCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid feed cursor");
+        }
+        try {
+            return new FeedCursor(
+                    Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator))),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            throw new IllegalArgumentException("Invalid feed cursor", e);
+        }
+    }
+}
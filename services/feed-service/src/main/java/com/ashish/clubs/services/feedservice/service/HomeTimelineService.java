@@ -0,0 +1,200 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.services.feedservice.entity.ClubMemberDocument;
+import com.ashish.clubs.services.feedservice.entity.HomeTimelineDocument;
+import com.ashish.clubs.services.feedservice.entity.HomeTimelineDocument.Entry;
+import com.ashish.clubs.services.feedservice.entity.PostDocument;
+import com.ashish.clubs.services.feedservice.repository.ClubMemberRepository;
+import com.ashish.clubs.services.feedservice.repository.HomeTimelineRepository;
+import com.ashish.clubs.services.feedservice.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-user home feeds ("posts from my clubs") backed by materialized timelines.
+ * <p>
+ * Fan-out on write: a new post is pushed to the capped timeline of every member of its club, one
+ * multi-document update per batch of members. Clubs with at least {@code fan-out-limit} members are
+ * skipped, which bounds the cost of a single post; their posts are pulled at read time with one indexed
+ * query over the user's large clubs and merged with the materialized entries. Reading a home feed is
+ * therefore one timeline lookup, one batch fetch of the posts it references and, only for members of
+ * large clubs, one pull query.
+ * <p>
+ * Memberships are mirrored from club-events into club_members; a user who joins a club gets an (empty)
+ * timeline and the club's latest posts backfilled, a user who leaves loses the club's entries. Fan-out
+ * only reaches existing timelines, so memberships made before this service consumed club-events must be
+ * announced again with club-service's {@code POST /clubs/memberships/republish}.
+ */
+@Slf4j
+@Service
+public class HomeTimelineService {
+
+    private static final Comparator<PostDocument> FEED_ORDER = Comparator
+            .comparing(PostDocument::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(PostDocument::getPostId, FeedCursor.ID_ORDER.reversed());
+
+    private final HomeTimelineRepository homeTimelineRepository;
+    private final ClubMemberRepository clubMemberRepository;
+    private final PostRepository postRepository;
+    private final int maxEntries;
+    private final long fanOutLimit;
+    private final int fanOutBatchSize;
+    private final int backfillSize;
+
+    public HomeTimelineService(HomeTimelineRepository homeTimelineRepository,
+                               ClubMemberRepository clubMemberRepository,
+                               PostRepository postRepository,
+                               @Value("${application.feed.home.max-entries:800}") int maxEntries,
+                               @Value("${application.feed.home.fan-out-limit:10000}") long fanOutLimit,
+                               @Value("${application.feed.home.fan-out-batch-size:1000}") int fanOutBatchSize,
+                               @Value("${application.feed.home.backfill-size:20}") int backfillSize) {
+        this.homeTimelineRepository = homeTimelineRepository;
+        this.clubMemberRepository = clubMemberRepository;
+        this.postRepository = postRepository;
+        this.maxEntries = maxEntries;
+        this.fanOutLimit = fanOutLimit;
+        this.fanOutBatchSize = fanOutBatchSize;
+        this.backfillSize = backfillSize;
+    }
+
+    /**
+     * Pushes a new post to the home timelines of its club's members, unless the club is large.
+     */
+    public Mono<Void> fanOut(Post post) {
+        if (post.getClubId() == null || post.getPostId() == null) {
+            return Mono.empty();
+        }
+        Entry entry = Entry.builder()
+                .postId(UUID.fromString(post.getPostId()))
+                .clubId(post.getClubId())
+                .createdAt(post.getTimestamp() != null ? post.getTimestamp() : Instant.now())
+                .build();
+
+        return clubMemberRepository.findMemberCount(post.getClubId())
+                .flatMap(members -> {
+                    if (members >= fanOutLimit) {
+                        log.debug("Club {} has {} members, post {} is pulled at read time", post.getClubId(), members, post.getPostId());
+                        return Mono.<Void>empty();
+                    }
+                    return clubMemberRepository.findByClubId(post.getClubId())
+                            .map(ClubMemberDocument::getUserId)
+                            .buffer(fanOutBatchSize)
+                            .concatMap(userIds -> homeTimelineRepository.pushEntry(userIds, entry, maxEntries))
+                            .reduce(0L, Long::sum)
+                            .doOnNext(updated -> log.debug("Fanned out post {} to {} home timelines", post.getPostId(), updated))
+                            .then();
+                });
+    }
+
+    /**
+     * Records a new club member and backfills the club's latest posts into their timeline.
+     */
+    public Mono<Void> addMember(String clubId, String userId) {
+        return homeTimelineRepository.createIfAbsent(userId)
+                .then(clubMemberRepository.addMember(clubId, userId, Instant.now()))
+                .flatMap(added -> added ? backfill(clubId, userId) : Mono.<Void>empty());
+    }
+
+    /**
+     * Forgets a club membership and removes the club's posts from the user's timeline.
+     */
+    public Mono<Void> removeMember(String clubId, String userId) {
+        return clubMemberRepository.removeMember(clubId, userId)
+                .then(homeTimelineRepository.removeClubEntries(userId, clubId));
+    }
+
+    /**
+     * Reads up to {@code limit} posts of the user's home feed in (createdAt desc, postId desc) order.
+     *
+     * @param after Position of the last post already returned, or null for the first page
+     */
+    public Mono<List<PostDocument>> readHomeFeed(String userId, FeedCursor after, int limit) {
+        Mono<List<PostDocument>> materialized = homeTimelineRepository.findById(userId)
+                .map(timeline -> entriesAfter(timeline, after, limit))
+                .defaultIfEmpty(List.of())
+                .flatMap(this::loadPosts);
+
+        Mono<List<PostDocument>> pulled = clubMemberRepository.findByUserId(userId)
+                .map(ClubMemberDocument::getClubId)
+                .collectList()
+                .flatMapMany(clubIds -> clubMemberRepository.findClubIdsWithMembersAtLeast(clubIds, fanOutLimit))
+                .collectList()
+                .flatMapMany(largeClubIds -> postRepository.findPublishedClubPage(
+                        largeClubIds,
+                        after != null ? after.createdAt() : null,
+                        after != null ? after.id() : null,
+                        limit))
+                .collectList();
+
+        return Mono.zip(materialized, pulled)
+                .map(sources -> merge(sources.getT1(), sources.getT2(), limit));
+    }
+
+    private Mono<Void> backfill(String clubId, String userId) {
+        return clubMemberRepository.findMemberCount(clubId)
+                .filter(members -> members < fanOutLimit) // Posts of large clubs are pulled at read time
+                .flatMapMany(members -> postRepository.findPublishedClubPage(List.of(clubId), null, null, backfillSize))
+                .map(doc -> Entry.builder()
+                        .postId(doc.getPostId())
+                        .clubId(clubId)
+                        .createdAt(doc.getCreatedAt())
+                        .build())
+                .collectList()
+                .flatMap(entries -> homeTimelineRepository.pushEntries(userId, entries, maxEntries));
+    }
+
+    /**
+     * Fetches the posts referenced by the entries in one query, keeping the timeline order and dropping
+     * posts that no longer exist or are no longer published.
+     */
+    private Mono<List<PostDocument>> loadPosts(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return postRepository.findAllById(entries.stream().map(Entry::getPostId).toList())
+                .filter(doc -> "PUBLISHED".equals(doc.getStatus()))
+                .collectMap(PostDocument::getPostId)
+                .map(posts -> entries.stream()
+                        .map(entry -> posts.get(entry.getPostId()))
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    private static List<Entry> entriesAfter(HomeTimelineDocument timeline, FeedCursor after, int limit) {
+        if (timeline.getEntries() == null) {
+            return List.of();
+        }
+        return timeline.getEntries().stream()
+                .filter(entry -> after == null
+                        || entry.getCreatedAt().isBefore(after.createdAt())
+                        || entry.getCreatedAt().equals(after.createdAt()) && FeedCursor.ID_ORDER.compare(entry.getPostId(), after.id()) < 0)
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<PostDocument> merge(List<PostDocument> materialized, List<PostDocument> pulled, int limit) {
+        if (pulled.isEmpty()) {
+            return materialized;
+        }
+        Map<UUID, PostDocument> distinct = Stream.concat(materialized.stream(), pulled.stream())
+                .collect(Collectors.toMap(PostDocument::getPostId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+        return distinct.values().stream()
+                .sorted(FEED_ORDER)
+                .limit(limit)
+                .toList();
+    }
+}
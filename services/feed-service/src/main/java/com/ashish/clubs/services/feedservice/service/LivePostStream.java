@@ -0,0 +1,42 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.common.models.feed.Post;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Live tail of newly created posts for server-sent event subscribers of this instance.
+ * <p>
+ * Posts are multicast "best effort": a subscriber that is not keeping up misses posts instead of
+ * slowing down the others or buffering without bound, and can catch up through the paginated feeds.
+ */
+@Slf4j
+@Component
+public class LivePostStream {
+
+    private final Sinks.Many<Post> sink = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * Publishes a new post to the current subscribers. Called from the feed-events listener thread.
+     */
+    public void publish(Post post) {
+        Sinks.EmitResult result = sink.tryEmitNext(post);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.debug("Live post {} not delivered: {}", post.getPostId(), result);
+        }
+    }
+
+    /**
+     * @return The posts created in the club from now on.
+     */
+    public Flux<Post> club(String clubId) {
+        return sink.asFlux()
+                .filter(post -> clubId.equals(post.getClubId()));
+    }
+
+    public int subscribers() {
+        return sink.currentSubscriberCount();
+    }
+}
@@ -0,0 +1,268 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.services.feedservice.entity.PostDocument;
+import com.ashish.clubs.services.feedservice.repository.PostRepository;
+import com.ashish.clubs.services.feedservice.repository.PostRepositoryCustom.CounterDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for post like and comment counters.
+ * <p>
+ * Increments are absorbed by per-post {@link LongAdder}s (striped, so a viral post does not turn into a
+ * single contended memory location) and flushed as coalesced $inc deltas in one unordered bulk write,
+ * either every flush interval or as soon as the number of buffered increments reaches the threshold.
+ * Reads merge the pending deltas in through {@link #withPending(PostDocument)}.
+ * <p>
+ * Crash safety: every like and comment is written to its own collection before the counter is buffered,
+ * so those collections are the source of truth. On startup the counters of all posts with activity in the
+ * replay window are recomputed from them, restoring any deltas a crash lost before they were flushed.
+ * A post is only recounted once it has had no activity for the settle period, which must exceed the flush
+ * interval of every instance: by then no instance still holds a delta that the collections already show
+ * (busy posts are retried every settle period, for at most the replay window). The local deltas are
+ * subtracted under the flush lock, so one that was put back by a failed flush is not counted twice.
+ */
+@Slf4j
+@Component
+public class PostCounterBuffer {
+
+    private static final Duration FLUSH_LOCK_POLL = Duration.ofMillis(10);
+
+    private final PostRepository postRepository;
+    private final Duration flushInterval;
+    private final long flushThreshold;
+    private final Duration replayWindow;
+    private final Duration recountSettle;
+
+    private final Map<UUID, PendingCounters> pending = new ConcurrentHashMap<>();
+    private final AtomicLong bufferedIncrements = new AtomicLong();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private Disposable scheduledFlush;
+
+    public PostCounterBuffer(PostRepository postRepository,
+                             @Value("${application.feed.counters.flush-interval:PT1S}") Duration flushInterval,
+                             @Value("${application.feed.counters.flush-threshold:5000}") long flushThreshold,
+                             @Value("${application.feed.counters.replay-window:PT1H}") Duration replayWindow,
+                             @Value("${application.feed.counters.recount-settle:PT10S}") Duration recountSettle) {
+        this.postRepository = postRepository;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+        this.replayWindow = replayWindow;
+        this.recountSettle = recountSettle;
+    }
+
+    /**
+     * Recounts recently active posts, then starts the periodic flush.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        replayRecentActivity()
+                .onErrorResume(e -> {
+                    log.error("Counter replay failed, counters of recently active posts may be stale", e);
+                    return Mono.just(0L);
+                })
+                .subscribe(count -> log.info("Recounted likes and comments of {} recently active posts", count));
+
+        scheduledFlush = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    /**
+     * Flushes whatever is still buffered before shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+        }
+        flush().block(Duration.ofSeconds(10));
+    }
+
+    public void addLikes(UUID postId, long delta) {
+        add(postId, delta, 0);
+    }
+
+    public void addComments(UUID postId, long delta) {
+        add(postId, 0, delta);
+    }
+
+    /**
+     * @return The document with its counters increased by the deltas not yet flushed.
+     */
+    public PostDocument withPending(PostDocument document) {
+        if (document == null || document.getPostId() == null) {
+            return document;
+        }
+        PendingCounters counters = pending.get(document.getPostId());
+        if (counters != null) {
+            document.setLikeCount(document.getLikeCount() + counters.likes.sum());
+            document.setCommentCount(document.getCommentCount() + counters.comments.sum());
+        }
+        return document;
+    }
+
+    public int pendingPosts() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all buffered deltas to Mongo. Only one flush runs at a time; a flush requested while another (or
+     * a recount) is in progress is skipped, its deltas go out with the next one. Deltas of a failed write are put back.
+     *
+     * @return Mono emitting the number of posts updated
+     */
+    public Mono<Integer> flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return Mono.just(0);
+        }
+        bufferedIncrements.set(0);
+
+        Map<UUID, CounterDelta> deltas = new HashMap<>();
+        pending.forEach((postId, counters) -> {
+            CounterDelta delta = counters.drain();
+            if (delta.isZero()) {
+                retireIfIdle(postId);
+            } else {
+                deltas.put(postId, delta);
+            }
+        });
+
+        return postRepository.incrementCounters(deltas)
+                .doOnNext(updated -> {
+                    if (updated > 0) {
+                        log.debug("Flushed counter deltas of {} posts", updated);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("Counter flush failed, keeping {} deltas for the next flush: {}", deltas.size(), e.getMessage());
+                    deltas.forEach((postId, delta) -> add(postId, delta.likes(), delta.comments()));
+                    return Mono.just(0);
+                })
+                .doFinally(signal -> flushing.set(false));
+    }
+
+    private void add(UUID postId, long likes, long comments) {
+        PendingCounters counters = pending.computeIfAbsent(postId, id -> new PendingCounters());
+        counters.likes.add(likes);
+        counters.comments.add(comments);
+        if (counters.retired) {
+            // Lost the race with retireIfIdle: move whatever is left to the current entry
+            rehome(postId, counters);
+        }
+        if (bufferedIncrements.incrementAndGet() >= flushThreshold) {
+            flush().subscribe();
+        }
+    }
+
+    /**
+     * Removes a post that had nothing to flush, so the map only holds recently active posts.
+     */
+    private void retireIfIdle(UUID postId) {
+        PendingCounters[] removed = new PendingCounters[1];
+        pending.computeIfPresent(postId, (id, counters) -> {
+            if (counters.likes.sum() != 0 || counters.comments.sum() != 0) {
+                return counters;
+            }
+            counters.retired = true;
+            removed[0] = counters;
+            return null;
+        });
+        if (removed[0] != null) {
+            rehome(postId, removed[0]);
+        }
+    }
+
+    /**
+     * Moves deltas added to a retired entry to the live one. Draining resets every cell atomically, so
+     * each increment is moved exactly once, whether by the writer or by the retiring flush.
+     */
+    private void rehome(UUID postId, PendingCounters retired) {
+        CounterDelta leftover = retired.drain();
+        if (!leftover.isZero()) {
+            add(postId, leftover.likes(), leftover.comments());
+        }
+    }
+
+    private Mono<Long> replayRecentActivity() {
+        return postRepository.findPostIdsWithActivitySince(Instant.now().minus(replayWindow))
+                .flatMap(this::recountWhenSettled, 8)
+                .count();
+    }
+
+    /**
+     * Recounts a post as soon as it has been quiet for the settle period, checking again every settle period.
+     */
+    private Mono<Boolean> recountWhenSettled(UUID postId) {
+        int attempts = (int) Math.max(1, replayWindow.dividedBy(recountSettle));
+        return Mono.defer(() -> recount(postId))
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(attempts, repeats -> repeats.delayElements(recountSettle))
+                .onErrorResume(IllegalStateException.class, e -> {
+                    log.warn("Post {} stayed active for the whole replay window, its counters were not recounted", postId);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Sets the post's counters to its likes and comments minus the local deltas not flushed yet.
+     *
+     * @return Mono emitting false if the post had activity within the settle period and was left alone
+     */
+    private Mono<Boolean> recount(UUID postId) {
+        // Counted before the activity check, so anything the count saw but the instances may not have flushed
+        // is newer than the settle period and defers the post
+        return postRepository.countActivity(postId)
+                .flatMap(totals -> postRepository.hasActivitySince(postId, Instant.now().minus(recountSettle))
+                        .flatMap(active -> active
+                                ? Mono.just(false)
+                                : withFlushLock(() -> {
+                                    PendingCounters counters = pending.get(postId);
+                                    long likes = counters != null ? counters.likes.sum() : 0;
+                                    long comments = counters != null ? counters.comments.sum() : 0;
+                                    return postRepository.setCounters(postId, totals.likes() - likes, totals.comments() - comments)
+                                            .thenReturn(true);
+                                })));
+    }
+
+    /**
+     * Runs the write while no flush is in flight, so the pending deltas it reads are exactly those not in Mongo.
+     */
+    private <T> Mono<T> withFlushLock(Supplier<Mono<T>> write) {
+        return Mono.fromCallable(() -> flushing.compareAndSet(false, true))
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(Integer.MAX_VALUE, repeats -> repeats.delayElements(FLUSH_LOCK_POLL))
+                .flatMap(locked -> write.get().doFinally(signal -> flushing.set(false)));
+    }
+
+    private static final class PendingCounters {
+
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder comments = new LongAdder();
+        private volatile boolean retired;
+
+        private CounterDelta drain() {
+            return new CounterDelta(likes.sumThenReset(), comments.sumThenReset());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses the {@code fields=} selector of the post list endpoints into the document fields to read.
+ * <p>
+ * {@code summary} selects the listing fields (postId, clubId, authorId, timestamp, likeCount,
+ * commentCount), which are always returned once a selector is given; {@code content} and
+ * {@code mediaUrls} are opt-in on top of them. Without a selector whole posts are read, as before.
+ */
+public final class PostFields {
+
+    public static final String SUMMARY = "summary";
+
+    private static final List<String> SUMMARY_FIELDS = List.of("clubId", "userId", "likeCount", "commentCount");
+
+    // Post property -> PostDocument field; _id and createdAt are always read as sort keys
+    private static final Map<String, String> SELECTABLE = Map.of(
+            "postId", "_id",
+            "clubId", "clubId",
+            "authorId", "userId",
+            "timestamp", "createdAt",
+            "likeCount", "likeCount",
+            "commentCount", "commentCount",
+            "content", "content",
+            "mediaUrls", "mediaUrls");
+
+    private PostFields() {
+    }
+
+    /**
+     * @param selector Comma-separated Post properties and/or {@code summary}, or null/blank for whole posts
+     * @return The document fields to read, or null to read whole documents
+     * @throws IllegalArgumentException if the selector names an unknown field
+     */
+    public static Set<String> parse(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<>(SUMMARY_FIELDS);
+        for (String name : selector.split(",")) {
+            String field = name.trim();
+            if (field.isEmpty() || SUMMARY.equals(field)) {
+                continue;
+            }
+            String documentField = SELECTABLE.get(field);
+            if (documentField == null) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            fields.add(documentField);
+        }
+        return fields;
+    }
+}
@@ -2,18 +2,27 @@ package com.ashish.clubs.services.feedservice.service;
 
 import com.ashish.clubs.common.config.AppConstants;
 import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.messaging.producer.DeliveryMode;
 import com.ashish.clubs.common.messaging.producer.KafkaEventProducer;
 import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.common.models.shared.PaginatedResponse;
+import com.ashish.clubs.services.feedservice.cache.PostCache;
+import com.ashish.clubs.services.feedservice.entity.LikeDocument;
 import com.ashish.clubs.services.feedservice.entity.PostDocument;
+import com.ashish.clubs.services.feedservice.repository.LikeRepository;
 import com.ashish.clubs.services.feedservice.repository.PostRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Slf4j
@@ -21,7 +30,16 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_STREAM_SIZE = 10_000;
+
     private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final PostCounterBuffer postCounterBuffer;
+    private final HomeTimelineService homeTimelineService;
+    private final TrendingRankingEngine trendingRankingEngine;
+    private final PostCache postCache;
+    private final LivePostStream livePostStream;
     private final KafkaEventProducer kafkaEventProducer;
 
     /**
@@ -34,7 +52,7 @@ public class PostService {
             post.setPostId(UUID.randomUUID().toString());
         }
 
-        Instant now = Instant.now();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS); // Mongo precision, so feed cursors match the stored key
         post.setTimestamp(now);
 
         PostDocument document = modelToDocument(post);
@@ -58,86 +76,261 @@ public class PostService {
                             .actorId(savedPost.getAuthorId())
                             .payload(savedPost)
                             .timestamp(Instant.now())
+                            .version(2) // Payload carries clubId, used by the home timeline fan-out
                             .build();
 
-                    return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_FEED_EVENTS, event)
+                    // Sent with the next batch; the response does not wait for the broker
+                    return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_FEED_EVENTS, event, DeliveryMode.AWAIT_ENQUEUE)
                             .thenReturn(savedPost)
                             .doOnError(ex -> log.error("Failed to publish post creation event", ex));
                 });
     }
 
     /**
-     * Get post by ID
+     * Get post by ID, read through {@link PostCache}
      */
     public Mono<Post> getPostById(String postId) {
-        return postRepository.findByPostId(postId)
-                .map(this::documentToModel);
+        UUID id = UUID.fromString(postId);
+        return postCache.get(postId, key -> postRepository.findById(id)
+                .map(this::documentToModel));
     }
 
     /**
-     * Get posts by author
+     * Get a page of an author's published posts, newest first, using keyset pagination on the
+     * (userId, createdAt, _id) index. Uses the same cursor format as {@link #getTimeline}.
      */
-    public Flux<Post> getPostsByAuthor(String userId) {
-        return postRepository.findByUserId(userId)
-                .map(this::documentToModel);
+    public Mono<PaginatedResponse<Post>> getPostsByAuthor(String userId, String cursor, int size, String fields) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        return postRepository.findPublishedAuthorPage(
+                        userId,
+                        after != null ? after.createdAt() : null,
+                        after != null ? after.id() : null,
+                        pageSize + 1,
+                        PostFields.parse(fields))
+                .collectList()
+                .map(documents -> toPage(documents, pageSize, after == null));
     }
 
     /**
-     * Get posts by club
+     * Get a page of a club's published posts, newest first, using keyset pagination on the
+     * (clubId, createdAt, _id) index. Uses the same cursor format as {@link #getTimeline}.
      */
-    public Flux<Post> getPostsByClub(String clubId) {
-        return postRepository.findByClubId(clubId)
-                .map(this::documentToModel);
+    public Mono<PaginatedResponse<Post>> getPostsByClub(String clubId, String cursor, int size, String fields) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        return postRepository.findPublishedClubPage(
+                        List.of(clubId),
+                        after != null ? after.createdAt() : null,
+                        after != null ? after.id() : null,
+                        pageSize + 1,
+                        PostFields.parse(fields))
+                .collectList()
+                .map(documents -> toPage(documents, pageSize, after == null));
+    }
+
+    /**
+     * Get a page of the timeline (all published posts, newest first) using keyset pagination.
+     *
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size   Page size, capped at {@link #MAX_PAGE_SIZE}
+     * @param fields The {@link PostFields} selector, or null for whole posts
+     */
+    public Mono<PaginatedResponse<Post>> getTimeline(String cursor, int size, String fields) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // One extra post tells whether another page follows without a count query
+        return postRepository.findPublishedPage(
+                        after != null ? after.createdAt() : null,
+                        after != null ? after.id() : null,
+                        pageSize + 1,
+                        PostFields.parse(fields))
+                .collectList()
+                .map(documents -> toPage(documents, pageSize, after == null));
+    }
+
+    /**
+     * Get a page of the user's home feed: posts of the clubs they belong to, newest first.
+     * Uses the same cursor format as {@link #getTimeline}.
+     */
+    public Mono<PaginatedResponse<Post>> getHomeFeed(String userId, String cursor, int size) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        return homeTimelineService.readHomeFeed(userId, after, pageSize + 1)
+                .map(documents -> toPage(documents, pageSize, after == null));
+    }
+
+    /**
+     * Stream the timeline, newest first, starting after the cursor. Posts are read from the Mongo cursor
+     * as the subscriber requests them, so a slow client does not make the service buffer the whole feed.
+     *
+     * @param limit  Maximum number of posts, capped at {@link #MAX_STREAM_SIZE}
+     * @param fields The {@link PostFields} selector, or null for whole posts
+     */
+    public Flux<Post> streamTimeline(String cursor, int limit, String fields) {
+        return Flux.defer(() -> {
+            FeedCursor after = FeedCursor.decode(cursor);
+            return postRepository.findPublishedPage(
+                    after != null ? after.createdAt() : null,
+                    after != null ? after.id() : null,
+                    streamSize(limit),
+                    PostFields.parse(fields));
+        }).map(this::documentToModel);
+    }
+
+    /**
+     * Stream a club's posts, newest first. See {@link #streamTimeline}.
+     */
+    public Flux<Post> streamPostsByClub(String clubId, String cursor, int limit, String fields) {
+        return Flux.defer(() -> {
+            FeedCursor after = FeedCursor.decode(cursor);
+            return postRepository.findPublishedClubPage(
+                    List.of(clubId),
+                    after != null ? after.createdAt() : null,
+                    after != null ? after.id() : null,
+                    streamSize(limit),
+                    PostFields.parse(fields));
+        }).map(this::documentToModel);
     }
 
     /**
-     * Get all published posts with pagination
+     * Stream an author's posts, newest first. See {@link #streamTimeline}.
      */
-    public Flux<Post> getAllPublishedPosts(int page, int size) {
-        return postRepository.findAllBy(PageRequest.of(page, size))
+    public Flux<Post> streamPostsByAuthor(String userId, String cursor, int limit, String fields) {
+        return Flux.defer(() -> {
+            FeedCursor after = FeedCursor.decode(cursor);
+            return postRepository.findPublishedAuthorPage(
+                    userId,
+                    after != null ? after.createdAt() : null,
+                    after != null ? after.id() : null,
+                    streamSize(limit),
+                    PostFields.parse(fields));
+        }).map(this::documentToModel);
+    }
+
+    /**
+     * The posts created in a club from now on, as seen by this instance.
+     */
+    public Flux<Post> liveClubPosts(String clubId) {
+        return livePostStream.club(clubId);
+    }
+
+    /**
+     * Get the highest ranked posts of {@link TrendingRankingEngine}, best first. Posts the engine has only
+     * seen activity for are loaded from Mongo; posts that no longer exist are left out.
+     */
+    public Mono<List<Post>> getTrending(int limit) {
+        List<TrendingRankingEngine.Ranked> top = trendingRankingEngine.top(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        List<UUID> missing = top.stream()
+                .filter(ranked -> ranked.post() == null)
+                .map(TrendingRankingEngine.Ranked::postId)
+                .toList();
+
+        Mono<Map<UUID, Post>> loaded = missing.isEmpty()
+                ? Mono.just(Map.of())
+                : postRepository.findAllById(missing)
+                        .filter(doc -> "PUBLISHED".equals(doc.getStatus()))
+                        .collectMap(PostDocument::getPostId, this::documentToModel);
+        return loaded.map(posts -> top.stream()
+                .map(ranked -> ranked.post() != null ? ranked.post() : posts.get(ranked.postId()))
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /**
+     * Get the published posts created since the given instant, newest first, read from the timeline index.
+     */
+    public Flux<Post> getRecentPosts(Instant since, int limit) {
+        return postRepository.findPublishedPage(null, null, limit)
+                .takeWhile(doc -> !doc.getCreatedAt().isBefore(since))
                 .map(this::documentToModel);
     }
 
     /**
-     * Like a post
+     * Like a post.
+     * The like is recorded in the likes collection, whose unique (entity_id, user_id) index turns a repeated
+     * like into a no-op. The counter increment goes through {@link PostCounterBuffer}, which coalesces the
+     * likes of a hot post into one $inc per flush. The returned post only carries its id and counters.
      */
     public Mono<Post> likePost(String postId, String userId) {
         log.info("User {} liked post {}", userId, postId);
 
-        return postRepository.findByPostId(postId)
-                .switchIfEmpty(Mono.error(new IllegalArgumentException("Post not found")))
-                .flatMap(post -> {
-                    post.setLikeCount(post.getLikeCount() + 1);
-                    post.setUpdatedAt(Instant.now());
-
-                    return postRepository.save(post)
-                            .flatMap(updated -> {
-                                Post model = documentToModel(updated);
-
-                                // Publish POST_LIKED event
-                                DomainEvent event = DomainEvent.builder()
-                                        .eventId(UUID.randomUUID().toString())
-                                        .eventType("POST_LIKED")
-                                        .sourceService("feed-service")
-                                        .entityId(postId)
-                                        .entityType("POST")
-                                        .actorId(userId)
-                                        .payload(model)
-                                        .timestamp(Instant.now())
-                                        .build();
-
-                                return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_FEED_EVENTS, event)
-                                        .thenReturn(model)
-                                        .doOnError(ex -> log.error("Failed to publish post like event", ex));
-                            });
+        UUID id = UUID.fromString(postId);
+        Instant now = Instant.now();
+        LikeDocument like = LikeDocument.builder()
+                .entityId(postId)
+                .entityType("POST")
+                .userId(userId)
+                .timestamp(now)
+                .createdAt(now)
+                .build();
+
+        return likeRepository.insert(like)
+                .flatMap(saved -> postRepository.findCounters(id)
+                        // No such post: undo the like so it cannot be counted later
+                        .switchIfEmpty(likeRepository.deleteById(saved.getLikeId())
+                                .then(Mono.<PostDocument>error(new IllegalArgumentException("Post not found"))))
+                        .map(counters -> {
+                            postCounterBuffer.addLikes(id, 1);
+                            return documentToModel(counters);
+                        })
+                        .flatMap(model -> postCache.updateCounters(postId, model.getLikeCount(), model.getCommentCount())
+                                .then(publishLiked(postId, userId, model))))
+                .onErrorResume(DuplicateKeyException.class, ex -> {
+                    log.debug("User {} already liked post {}", userId, postId);
+                    return postRepository.findCounters(id)
+                            .map(this::documentToModel)
+                            .switchIfEmpty(Mono.<Post>error(new IllegalArgumentException("Post not found")));
                 });
     }
 
+    private Mono<Post> publishLiked(String postId, String userId, Post model) {
+        // Publish POST_LIKED event
+        DomainEvent event = DomainEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("POST_LIKED")
+                .sourceService("feed-service")
+                .entityId(postId)
+                .entityType("POST")
+                .actorId(userId)
+                .payload(model)
+                .timestamp(Instant.now())
+                .build();
+
+        // Likes are high volume and the count is already stored, losing an event under overload is acceptable
+        return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_FEED_EVENTS, event, DeliveryMode.BEST_EFFORT)
+                .thenReturn(model)
+                .doOnError(ex -> log.error("Failed to publish post like event", ex));
+    }
+
     // Helper methods
 
+    private static int streamSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_STREAM_SIZE));
+    }
+
+    private PaginatedResponse<Post> toPage(List<PostDocument> documents, int pageSize, boolean first) {
+        boolean hasNext = documents.size() > pageSize;
+        List<PostDocument> page = hasNext ? documents.subList(0, pageSize) : documents;
+        PostDocument last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return PaginatedResponse.<Post>builder()
+                .content(page.stream().map(this::documentToModel).toList())
+                .size(pageSize)
+                .first(first)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new FeedCursor(last.getCreatedAt(), last.getPostId()).encode() : null)
+                .build();
+    }
+
     private PostDocument modelToDocument(Post post) {
         return PostDocument.builder()
                 .postId(UUID.fromString(post.getPostId()))
+                .clubId(post.getClubId())
                 .content(post.getContent())
                 .userId(post.getAuthorId())
                 .mediaUrls(post.getMediaUrls())
@@ -147,8 +340,10 @@ public class PostService {
     }
 
     private Post documentToModel(PostDocument doc) {
+        postCounterBuffer.withPending(doc); // Include increments not flushed yet
         return Post.builder()
                 .postId(doc.getPostId().toString())
+                .clubId(doc.getClubId())
                 .content(doc.getContent())
                 .authorId(doc.getUserId())
                 .timestamp(doc.getCreatedAt())
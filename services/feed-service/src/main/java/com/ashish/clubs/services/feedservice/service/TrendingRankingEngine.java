@@ -0,0 +1,178 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.common.models.feed.Post;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory ranking of trending posts.
+ * <p>
+ * A post's score is the sum of its activity (the post itself, each like, each comment), every item
+ * weighted and decayed exponentially with the configured half-life since it happened. Instead of decaying
+ * all scores as time passes, each item is added with weight {@code w * e^(λ (t - epoch))}: every score is
+ * then the decayed score times the same factor, so the order is the same at any instant and an update
+ * only touches one post. Scores are kept in log space (log-sum-exp) so the growing factor never overflows.
+ * <p>
+ * Posts are held in a {@link ConcurrentSkipListSet} ordered by score, so the top K is the first K
+ * elements, read without locking. At most {@code max-tracked} posts are kept; the lowest-ranked post is
+ * evicted when a new one arrives. Each instance ranks the events it consumes itself and starts from the
+ * recent posts in Mongo, so it needs no shared state.
+ */
+@Slf4j
+@Component
+public class TrendingRankingEngine {
+
+    private static final Comparator<Ranked> BY_SCORE = Comparator
+            .comparingDouble(Ranked::logScore).reversed()
+            .thenComparing(Ranked::postId);
+
+    private final Map<UUID, Ranked> posts = new ConcurrentHashMap<>();
+    private final NavigableSet<Ranked> ranking = new ConcurrentSkipListSet<>(BY_SCORE);
+    private final Instant epoch = Instant.now();
+    private final double decayPerSecond;
+    private final double postWeight;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final int maxTracked;
+
+    public TrendingRankingEngine(@Value("${application.feed.trending.half-life:PT6H}") Duration halfLife,
+                                 @Value("${application.feed.trending.post-weight:3}") double postWeight,
+                                 @Value("${application.feed.trending.like-weight:1}") double likeWeight,
+                                 @Value("${application.feed.trending.comment-weight:2}") double commentWeight,
+                                 @Value("${application.feed.trending.max-tracked:10000}") int maxTracked) {
+        this.decayPerSecond = Math.log(2) / halfLife.toSeconds();
+        this.postWeight = postWeight;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.maxTracked = maxTracked;
+    }
+
+    /**
+     * Starts tracking a new post, scored by its creation.
+     */
+    public void onPostCreated(Post post) {
+        UUID postId = UUID.fromString(post.getPostId());
+        Instant createdAt = post.getTimestamp() != null ? post.getTimestamp() : Instant.now();
+        update(postId, postWeight, createdAt, post);
+    }
+
+    /**
+     * Adds likes that happened at {@code at}, replacing the post's counters if {@code counters} is given.
+     */
+    public void onLiked(UUID postId, long likes, Instant at, Post counters) {
+        update(postId, likeWeight * likes, at, counters);
+    }
+
+    /**
+     * Adds comments that happened at {@code at}.
+     */
+    public void onCommented(UUID postId, long comments, Instant at) {
+        update(postId, commentWeight * comments, at, null);
+    }
+
+    /**
+     * Seeds a post from its stored state, e.g. on startup. Likes and comments are counted as if they
+     * happened when the post was created.
+     */
+    public void seed(Post post) {
+        Instant createdAt = post.getTimestamp() != null ? post.getTimestamp() : Instant.now();
+        double weight = postWeight + likeWeight * post.getLikeCount() + commentWeight * post.getCommentCount();
+        update(UUID.fromString(post.getPostId()), weight, createdAt, post);
+    }
+
+    /**
+     * @return The {@code k} highest ranked posts, best first.
+     */
+    public List<Ranked> top(int k) {
+        List<Ranked> top = new ArrayList<>(Math.min(k, posts.size()));
+        for (Ranked ranked : ranking) {
+            if (top.size() >= k) {
+                break;
+            }
+            top.add(ranked);
+        }
+        return top;
+    }
+
+    public int trackedPosts() {
+        return posts.size();
+    }
+
+    private void update(UUID postId, double weight, Instant at, Post snapshot) {
+        if (weight <= 0) {
+            return;
+        }
+        double logWeight = Math.log(weight) + decayPerSecond * Duration.between(epoch, at).toMillis() / 1000.0;
+
+        // compute() serializes updates of one post; the skip list takes concurrent updates of different posts
+        posts.compute(postId, (id, current) -> {
+            Ranked next = current == null
+                    ? new Ranked(id, logWeight, snapshot)
+                    : new Ranked(id, logSum(current.logScore(), logWeight), merge(current.post(), snapshot));
+            if (current != null) {
+                ranking.remove(current);
+            }
+            ranking.add(next);
+            return next;
+        });
+
+        while (posts.size() > maxTracked) {
+            Ranked lowest = ranking.pollLast();
+            if (lowest == null) {
+                break;
+            }
+            posts.remove(lowest.postId(), lowest);
+        }
+    }
+
+    /**
+     * log(e^a + e^b) without leaving log space.
+     */
+    private static double logSum(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    /**
+     * Keeps the post's content from the first snapshot and its counters from the latest one.
+     */
+    private static Post merge(Post current, Post update) {
+        if (update == null) {
+            return current;
+        }
+        if (current == null || update.getContent() != null) {
+            return update;
+        }
+        return Post.builder()
+                .postId(current.getPostId())
+                .clubId(current.getClubId())
+                .content(current.getContent())
+                .authorId(current.getAuthorId())
+                .timestamp(current.getTimestamp())
+                .mediaUrls(current.getMediaUrls())
+                .likeCount(update.getLikeCount())
+                .commentCount(update.getCommentCount())
+                .build();
+    }
+
+    /**
+     * A post in the ranking.
+     *
+     * @param logScore Natural log of the post's (epoch-anchored) score.
+     * @param post     Latest known snapshot of the post, or null if only its activity has been seen.
+     */
+    public record Ranked(UUID postId, double logScore, Post post) {
+    }
+}
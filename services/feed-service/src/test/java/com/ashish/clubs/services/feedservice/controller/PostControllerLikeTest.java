@@ -0,0 +1,79 @@
+package com.ashish.clubs.services.feedservice.controller;
+
+import com.ashish.clubs.common.models.feed.Post;
+import com.ashish.clubs.common.security.JwtAuthFilter;
+import com.ashish.clubs.common.security.identity.IdentityHeaderSigner;
+import com.ashish.clubs.common.security.jwt.JwtUtil;
+import com.ashish.clubs.common.security.jwt.TokenDenyList;
+import com.ashish.clubs.services.feedservice.config.SecurityConfig;
+import com.ashish.clubs.services.feedservice.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Likes are counted once per user, so the liking user must come from the token and not from the request.
+ */
+@WebFluxTest(properties = {
+        "application.security.jwt.secret-key=ZmVlZC1zZXJ2aWNlLXRlc3Qtc2lnbmluZy1rZXktMDEyMzQ1Njc4OQ==",
+        "application.security.jwt.expiration=60000",
+        "application.security.jwt.refresh-token.expiration=60000"
+})
+class PostControllerLikeTest {
+
+    @Configuration
+    @Import({PostController.class, SecurityConfig.class,
+            JwtAuthFilter.class, JwtUtil.class, TokenDenyList.class, IdentityHeaderSigner.class})
+    static class Config {
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private PostService postService;
+
+    @Test
+    void likeIsRecordedForTheAuthenticatedUser() {
+        String postId = UUID.randomUUID().toString();
+        String userId = UUID.randomUUID().toString();
+        when(postService.likePost(postId, userId))
+                .thenReturn(Mono.just(Post.builder().postId(postId).likeCount(1).build()));
+
+        webTestClient.post().uri("/api/v1/posts/{postId}/like?userId={other}", postId, "someone-else")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateAccessToken("user@example.com", userId, Set.of("ROLE_USER")).block())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.likeCount").isEqualTo(1);
+
+        verify(postService).likePost(postId, userId);
+        verify(postService, never()).likePost(postId, "someone-else");
+    }
+
+    @Test
+    void likeRequiresAuthentication() {
+        webTestClient.post().uri("/api/v1/posts/{postId}/like?userId={userId}", UUID.randomUUID(), "someone")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        verify(postService, never()).likePost(anyString(), anyString());
+    }
+}
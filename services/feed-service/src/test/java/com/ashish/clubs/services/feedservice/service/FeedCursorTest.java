@@ -0,0 +1,59 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import org.bson.BsonBinary;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    @Test
+    void idOrderMatchesTheOrderOfTheStoredIds() {
+        // MongoDB compares binary values of the same length and subtype byte by byte, unsigned
+        Comparator<UUID> storedOrder = (a, b) -> Arrays.compareUnsigned(stored(a), stored(b));
+        List<UUID> ids = Stream.concat(
+                        Stream.generate(UUID::randomUUID).limit(500),
+                        Stream.of(new UUID(0, 0), new UUID(-1, -1), new UUID(Long.MIN_VALUE, 0), new UUID(0x80, 0x80)))
+                .toList();
+
+        assertThat(ids.stream().sorted(FeedCursor.ID_ORDER).toList())
+                .isEqualTo(ids.stream().sorted(storedOrder).toList());
+    }
+
+    @Test
+    void idOrderDiffersFromUuidCompareTo() {
+        // UUID.compareTo compares the halves as signed longs, most significant byte first
+        UUID negative = new UUID(-1, 0);
+        UUID positive = new UUID(1, 0);
+        assertThat(negative.compareTo(positive)).isNegative();
+        assertThat(FeedCursor.ID_ORDER.compare(negative, positive)).isPositive();
+
+        // Stored, each half starts with its least significant byte
+        UUID lowByteZero = new UUID(0x0100, 0);
+        UUID lowByteOne = new UUID(0x01, 0);
+        assertThat(lowByteZero.compareTo(lowByteOne)).isPositive();
+        assertThat(FeedCursor.ID_ORDER.compare(lowByteZero, lowByteOne)).isNegative();
+    }
+
+    @Test
+    void cursorSurvivesEncoding() {
+        FeedCursor cursor = new FeedCursor(Instant.ofEpochMilli(1_700_000_000_123L), UUID.randomUUID());
+
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(FeedCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> FeedCursor.decode("bm90LWEtY3Vyc29y")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] stored(UUID id) {
+        return new BsonBinary(id, UuidRepresentation.JAVA_LEGACY).getData();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.common.messaging.producer.KafkaEventProducer;
+import com.ashish.clubs.services.feedservice.cache.PostCache;
+import com.ashish.clubs.services.feedservice.entity.PostDocument;
+import com.ashish.clubs.services.feedservice.repository.LikeRepository;
+import com.ashish.clubs.services.feedservice.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires thousands of parallel likes, a share of them repeats by the same user, at one post
+ * and checks that the unique like index and the write-behind counter buffer together count
+ * every distinct like exactly once. Runs against a real MongoDB; skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataMongoTest(properties = {
+        "application.feed.counters.flush-interval=PT1H", // Only threshold and explicit flushes
+        "application.feed.counters.flush-threshold=256" // Threshold flushes race the likes
+})
+@Import({PostService.class, PostCounterBuffer.class})
+class PostServiceLikeConcurrencyTest {
+
+    private static final int DISTINCT_USERS = 2_000;
+    private static final int LIKES_PER_USER = 3;
+    private static final int CONCURRENCY = 256;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostCounterBuffer postCounterBuffer;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @MockitoBean
+    private HomeTimelineService homeTimelineService;
+
+    @MockitoBean
+    private TrendingRankingEngine trendingRankingEngine;
+
+    @MockitoBean
+    private PostCache postCache;
+
+    @MockitoBean
+    private LivePostStream livePostStream;
+
+    @MockitoBean
+    private KafkaEventProducer kafkaEventProducer;
+
+    @BeforeEach
+    void setUp() {
+        when(postCache.updateCounters(anyString(), anyInt(), anyInt())).thenReturn(Mono.empty());
+        when(kafkaEventProducer.publishEvent(anyString(), any(), any())).thenReturn(Mono.empty());
+        likeRepository.deleteAll().block();
+        postRepository.deleteAll().block();
+    }
+
+    @Test
+    void parallelLikesCountEachDistinctUserOnce() {
+        UUID postId = UUID.randomUUID();
+        Instant now = Instant.now();
+        postRepository.save(PostDocument.builder()
+                .postId(postId)
+                .clubId("club-1")
+                .userId("author-1")
+                .content("hello")
+                .status("PUBLISHED")
+                .createdAt(now)
+                .updatedAt(now)
+                .build()).block();
+
+        Flux.range(0, DISTINCT_USERS * LIKES_PER_USER)
+                .map(i -> "user-" + (i % DISTINCT_USERS))
+                .flatMap(userId -> postService.likePost(postId.toString(), userId)
+                        .subscribeOn(Schedulers.parallel()), CONCURRENCY)
+                .then()
+                .block(Duration.ofMinutes(2));
+
+        assertThat(likeRepository.count().block()).isEqualTo(DISTINCT_USERS);
+        assertThat(storedLikeCount(postId)).isEqualTo(DISTINCT_USERS);
+
+        // Nothing is left pending to be counted a second time
+        postCounterBuffer.flush().block();
+        assertThat(storedLikeCount(postId)).isEqualTo(DISTINCT_USERS);
+    }
+
+    /**
+     * Flushes until the buffered deltas are persisted; a threshold flush still in flight makes
+     * an explicit flush a no-op, so a single call is not enough.
+     */
+    private long storedLikeCount(UUID postId) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        long stored;
+        do {
+            postCounterBuffer.flush().block();
+            stored = postRepository.findCounters(postId).map(PostDocument::getLikeCount).block();
+            if (stored >= DISTINCT_USERS) {
+                break;
+            }
+            Mono.delay(Duration.ofMillis(50)).block();
+        } while (System.nanoTime() < deadline);
+        return stored;
+    }
+}
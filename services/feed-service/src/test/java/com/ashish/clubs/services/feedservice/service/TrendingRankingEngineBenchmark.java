@@ -0,0 +1,102 @@
+package com.ashish.clubs.services.feedservice.service;
+
+import com.ashish.clubs.common.models.feed.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TrendingRankingEngine} update cost and top-K read latency as the number of tracked posts grows.
+ * <p>
+ * Every post is seeded up front and {@code max-tracked} equals {@code activePosts}, so updates never
+ * evict. {@code like} scores a like on a random post from one thread, {@code likeContended} from four
+ * threads at once; the inverse of their time per operation is the update throughput. {@code top10} and
+ * {@code top100} read the ranking the way the trending endpoint does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrendingRankingEngineBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int activePosts;
+
+    private TrendingRankingEngine engine;
+    private UUID[] postIds;
+
+    @Setup
+    public void setUp() {
+        engine = new TrendingRankingEngine(Duration.ofHours(6), 3, 1, 2, activePosts);
+        postIds = new UUID[activePosts];
+        Instant now = Instant.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < activePosts; i++) {
+            postIds[i] = UUID.randomUUID();
+            engine.seed(Post.builder()
+                    .postId(postIds[i].toString())
+                    .clubId(UUID.randomUUID().toString())
+                    .authorId(UUID.randomUUID().toString())
+                    .content("post " + i)
+                    .timestamp(now.minusSeconds(random.nextInt(86_400)))
+                    .likeCount(random.nextInt(500))
+                    .commentCount(random.nextInt(50))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int like() {
+        return onLikedRandomPost();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int likeContended() {
+        return onLikedRandomPost();
+    }
+
+    @Benchmark
+    public List<TrendingRankingEngine.Ranked> top10() {
+        return engine.top(10);
+    }
+
+    @Benchmark
+    public List<TrendingRankingEngine.Ranked> top100() {
+        return engine.top(100);
+    }
+
+    private int onLikedRandomPost() {
+        int index = ThreadLocalRandom.current().nextInt(activePosts);
+        engine.onLiked(postIds[index], 1, Instant.now(), null);
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrendingRankingEngineBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
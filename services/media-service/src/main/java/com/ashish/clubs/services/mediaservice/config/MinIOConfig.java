@@ -1,11 +1,18 @@
 package com.ashish.clubs.services.mediaservice.config;
 
+import com.ashish.clubs.services.mediaservice.service.MultipartMinioClient;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Configuration
 public class MinIOConfig {
@@ -27,6 +34,28 @@ public class MinIOConfig {
                 .credentials(accessKey, secretKey)
                 .build();
     }
+
+    /**
+     * Client for part uploads, with an HTTP dispatcher of its own: it runs at most {@code max-in-flight-parts}
+     * requests at a time across all uploads and queues the rest without holding a thread.
+     */
+    @Bean
+    public MultipartMinioClient multipartMinioClient(@Value("${minio.upload.max-in-flight-parts:32}") int maxInFlightParts) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxInFlightParts);
+        dispatcher.setMaxRequestsPerHost(maxInFlightParts);
+        long timeout = TimeUnit.MINUTES.toMillis(5); // MinIO's default
+        OkHttpClient httpClient = HttpUtils.newDefaultHttpClient(timeout, timeout, timeout)
+                .newBuilder()
+                .dispatcher(dispatcher)
+                .build();
+
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(minioUrl)
+                .credentials(accessKey, secretKey)
+                .httpClient(httpClient)
+                .build());
+    }
 }
 
 
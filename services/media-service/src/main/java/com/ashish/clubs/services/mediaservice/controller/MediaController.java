@@ -2,15 +2,30 @@ package com.ashish.clubs.services.mediaservice.controller;
 
 import com.ashish.clubs.common.config.AppConstants;
 import com.ashish.clubs.common.models.media.MediaFile;
+import com.ashish.clubs.common.models.media.PresignedUrl;
+import com.ashish.clubs.common.models.media.UploadSession;
+import com.ashish.clubs.common.security.CurrentUser;
 import com.ashish.clubs.services.mediaservice.service.MediaService;
+import com.ashish.clubs.services.mediaservice.service.PresignedMediaService;
+import com.ashish.clubs.services.mediaservice.service.ResumableUploadService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -18,7 +33,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class MediaController {
 
+    // Objects are immutable (a new upload gets a new media id), so clients may reuse them for a while
+    private static final CacheControl CONTENT_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePrivate();
+
     private final MediaService mediaService;
+    private final ResumableUploadService resumableUploadService;
+    private final PresignedMediaService presignedMediaService;
 
     /**
      * Upload a file
@@ -41,6 +61,133 @@ public class MediaController {
                 });
     }
 
+    /**
+     * Start a resumable upload for the authenticated user. The response tells the chunk size and count;
+     * send the chunks with {@code PUT /uploads/{uploadId}/chunks/{index}}, then complete the upload.
+     */
+    @PostMapping("/uploads")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<UploadSession>> initiateUpload(
+            @RequestParam String fileName,
+            @RequestParam(required = false) String contentType,
+            @RequestParam long totalSize,
+            @RequestParam String entityType,
+            @RequestParam(required = false) String entityId) {
+
+        String finalEntityId = entityId != null ? entityId : UUID.randomUUID().toString();
+
+        return currentUploader()
+                .flatMap(uploaderId -> resumableUploadService.initiate(fileName, contentType, totalSize, uploaderId, entityType, finalEntityId)
+                        .map(session -> ResponseEntity.status(HttpStatus.CREATED).body(session)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Upload chunk {@code index} of one of the user's resumable uploads as the raw request body
+     */
+    @PutMapping("/uploads/{uploadId}/chunks/{index}")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<Void>> uploadChunk(
+            @PathVariable UUID uploadId,
+            @PathVariable int index,
+            @RequestBody Flux<DataBuffer> body) {
+        return currentUploader()
+                .flatMap(uploaderId -> resumableUploadService.uploadChunk(uploadId, uploaderId, index, body)
+                        .map(stored -> ResponseEntity.noContent().<Void>build())
+                        .defaultIfEmpty(ResponseEntity.notFound().build()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class, ex -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Get the state of one of the user's resumable uploads, including the chunks received so far
+     */
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<UploadSession>> getUpload(@PathVariable UUID uploadId) {
+        return currentUploader()
+                .flatMap(uploaderId -> resumableUploadService.getSession(uploadId, uploaderId)
+                        .map(ResponseEntity::ok)
+                        .defaultIfEmpty(ResponseEntity.notFound().build()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Complete one of the user's resumable uploads once all chunks are received
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<MediaFile>> completeUpload(@PathVariable UUID uploadId) {
+        return currentUploader()
+                .flatMap(uploaderId -> resumableUploadService.complete(uploadId, uploaderId)
+                        .map(mediaFile -> ResponseEntity.status(HttpStatus.CREATED).body(mediaFile))
+                        .defaultIfEmpty(ResponseEntity.notFound().build()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalStateException.class, ex -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Abort one of the user's resumable uploads
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<Void>> abortUpload(@PathVariable UUID uploadId) {
+        return currentUploader()
+                .flatMap(uploaderId -> resumableUploadService.abort(uploadId, uploaderId))
+                .map(aborted -> aborted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build())
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Start a presigned upload for the authenticated user: the client PUTs the file to the returned URL,
+     * straight to object storage, then completes the upload with {@code POST /{mediaId}/complete}
+     */
+    @PostMapping("/presigned-uploads")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<PresignedUrl>> initiatePresignedUpload(
+            @RequestParam String fileName,
+            @RequestParam(required = false) String contentType,
+            @RequestParam String entityType,
+            @RequestParam(required = false) String entityId) {
+
+        String finalEntityId = entityId != null ? entityId : UUID.randomUUID().toString();
+
+        return currentUploader()
+                .flatMap(uploaderId -> presignedMediaService.initiateUpload(fileName, contentType, uploaderId, entityType, finalEntityId)
+                        .map(presignedUrl -> ResponseEntity.status(HttpStatus.CREATED).body(presignedUrl)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Record one of the user's presigned uploads once its object is stored
+     */
+    @PostMapping("/{mediaId}/complete")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<MediaFile>> completePresignedUpload(@PathVariable UUID mediaId) {
+        return currentUploader()
+                .flatMap(uploaderId -> presignedMediaService.complete(mediaId, uploaderId)
+                        .map(mediaFile -> ResponseEntity.status(HttpStatus.CREATED).body(mediaFile))
+                        .defaultIfEmpty(ResponseEntity.notFound().build()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class, ex -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
+    }
+
+    /**
+     * Get a short-lived URL to download a media file's content straight from object storage
+     */
+    @GetMapping("/{mediaId}/presigned-url")
+    public Mono<ResponseEntity<PresignedUrl>> getPresignedDownloadUrl(@PathVariable UUID mediaId) {
+        return presignedMediaService.presignDownload(mediaId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
     /**
      * Get media file by ID
      */
@@ -51,6 +198,87 @@ public class MediaController {
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Download a media file's content, streamed from MinIO.
+     * Supports a single byte range ({@code Range}, {@code If-Range}) for seeking, and conditional requests
+     * ({@code If-None-Match}, {@code If-Modified-Since}), answered with 304 without reading the object.
+     */
+    @GetMapping("/{mediaId}/content")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadMedia(
+            @PathVariable UUID mediaId,
+            @RequestHeader HttpHeaders requestHeaders) {
+        return mediaService.getMediaContent(mediaId)
+                .map(content -> contentResponse(content, requestHeaders))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Builds the 200, 206 or 416 response. The body is only read from MinIO once it is written, so a
+     * 304 decided by the result handler from the ETag and Last-Modified headers costs no object read.
+     */
+    private ResponseEntity<Flux<DataBuffer>> contentResponse(MediaService.MediaContent content, HttpHeaders requestHeaders) {
+        long size = content.size();
+        HttpRange range = requestedRange(content, requestHeaders);
+        long start = 0;
+        long length = size;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(size);
+                length = range.getRangeEnd(size) - start + 1;
+            } catch (IllegalArgumentException ex) {
+                start = size;
+            }
+            // HttpRange clamps the end to the object but not the start, so a range past the end comes back as-is
+            if (start >= size) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(range == null ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT)
+                .eTag(content.etag())
+                .lastModified(content.lastModified())
+                .cacheControl(CONTENT_CACHE_CONTROL)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(content.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .contentType(MediaType.parseMediaType(content.contentType()));
+        if (range != null) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+        return response.contentLength(length)
+                .body(mediaService.readContent(content.minioPath(), start, length));
+    }
+
+    /**
+     * @return The single range to serve, or null for the whole object: no or a malformed Range header,
+     * several ranges, or an If-Range that does not match the current ETag.
+     */
+    private static HttpRange requestedRange(MediaService.MediaContent content, HttpHeaders requestHeaders) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals("\"" + content.etag() + "\"")) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = requestHeaders.getRange();
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return Mono emitting the authenticated user's id, or empty if there is none; uploads are owned by it
+     */
+    private static Mono<UUID> currentUploader() {
+        return CurrentUser.userId()
+                .flatMap(userId -> Mono.fromCallable(() -> UUID.fromString(userId))
+                        .onErrorResume(IllegalArgumentException.class, ex -> Mono.empty()));
+    }
+
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MediaController.class);
 }
 
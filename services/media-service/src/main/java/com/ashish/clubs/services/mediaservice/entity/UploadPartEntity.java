@@ -0,0 +1,38 @@
+package com.ashish.clubs.services.mediaservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A chunk of a resumable upload that MinIO has stored, with the ETag needed to complete the upload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("upload_session_parts")
+public class UploadPartEntity {
+    @Id
+    private Long id;
+
+    @Column("upload_id")
+    private UUID uploadId;
+
+    @Column("part_number")
+    private Integer partNumber;
+
+    private Long size;
+
+    private String etag;
+
+    @Column("created_at")
+    private Instant createdAt;
+}
@@ -0,0 +1,73 @@
+package com.ashish.clubs.services.mediaservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A resumable upload in progress. Its chunks are uploaded as the parts of the S3 multipart upload
+ * {@code s3UploadId}; chunk N covers bytes [N * chunkSize, (N + 1) * chunkSize) and is part N + 1.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("upload_sessions")
+public class UploadSessionEntity {
+    @Id
+    @Column("upload_id")
+    private UUID uploadId;
+
+    @Column("s3_upload_id")
+    private String s3UploadId;
+
+    @Column("minio_path")
+    private String minioPath;
+
+    @Column("file_name")
+    private String fileName;
+
+    @Column("mime_type")
+    private String mimeType;
+
+    @Column("total_size")
+    private Long totalSize;
+
+    @Column("chunk_size")
+    private Long chunkSize;
+
+    @Column("uploader_id")
+    private UUID uploaderId;
+
+    @Column("entity_type")
+    private String entityType;
+
+    @Column("entity_id")
+    private String entityId;
+
+    private String status;
+
+    @Column("created_at")
+    private Instant createdAt;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    @Column("expires_at")
+    private Instant expiresAt;
+
+    public int chunkCount() {
+        return (int) ((totalSize + chunkSize - 1) / chunkSize);
+    }
+
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, totalSize - index * chunkSize);
+    }
+}
@@ -1,11 +1,14 @@
 package com.ashish.clubs.services.mediaservice.repository;
 
 import com.ashish.clubs.services.mediaservice.entity.MediaFileEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Repository
@@ -15,5 +18,35 @@ public interface MediaFileRepository extends R2dbcRepository<MediaFileEntity, UU
     Flux<MediaFileEntity> findByEntityId(String entityId);
     Flux<MediaFileEntity> findByEntityType(String entityType);
     Mono<MediaFileEntity> findByMinioPath(String minioPath);
+
+    /**
+     * Marks a pending presigned upload as stored, with the size and type MinIO reports.
+     *
+     * @return Mono emitting 1 if the file was pending, 0 if it was already completed or removed
+     */
+    @Modifying
+    @Query("UPDATE media_files SET status = 'ACTIVE', file_size = :fileSize, mime_type = :mimeType, updated_at = :updatedAt " +
+            "WHERE media_id = :mediaId AND status = 'PENDING'")
+    Mono<Integer> activatePending(UUID mediaId, long fileSize, String mimeType, Instant updatedAt);
+
+    /**
+     * Inserts an ACTIVE file unless one with the same id is recorded already.
+     *
+     * @return Mono emitting 1 if the file was inserted, 0 if it existed
+     */
+    @Modifying
+    @Query("INSERT INTO media_files (media_id, file_name, file_size, mime_type, uploader_id, entity_type, entity_id, " +
+            "minio_path, url, status, created_at, updated_at) " +
+            "VALUES (:mediaId, :fileName, :fileSize, :mimeType, :uploaderId, :entityType, :entityId, " +
+            ":minioPath, :url, 'ACTIVE', :createdAt, :createdAt) ON CONFLICT (media_id) DO NOTHING")
+    Mono<Integer> insertActiveIfAbsent(UUID mediaId, String fileName, Long fileSize, String mimeType, UUID uploaderId,
+                                       String entityType, String entityId, String minioPath, String url, Instant createdAt);
+
+    @Query("SELECT * FROM media_files WHERE status = 'PENDING' AND created_at < :before ORDER BY created_at LIMIT :limit")
+    Flux<MediaFileEntity> findPendingCreatedBefore(Instant before, int limit);
+
+    @Modifying
+    @Query("DELETE FROM media_files WHERE media_id = :mediaId AND status = 'PENDING'")
+    Mono<Integer> deletePending(UUID mediaId);
 }
 
@@ -0,0 +1,31 @@
+package com.ashish.clubs.services.mediaservice.repository;
+
+import com.ashish.clubs.services.mediaservice.entity.UploadPartEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface UploadPartRepository extends R2dbcRepository<UploadPartEntity, Long> {
+
+    Flux<UploadPartEntity> findByUploadIdOrderByPartNumber(UUID uploadId);
+
+    /**
+     * Records a stored part, replacing the previous record if the chunk was uploaded again.
+     */
+    @Modifying
+    @Query("INSERT INTO upload_session_parts (upload_id, part_number, size, etag, created_at) " +
+            "VALUES (:uploadId, :partNumber, :size, :etag, :createdAt) " +
+            "ON CONFLICT (upload_id, part_number) DO UPDATE SET size = EXCLUDED.size, etag = EXCLUDED.etag, created_at = EXCLUDED.created_at")
+    Mono<Integer> upsert(UUID uploadId, int partNumber, long size, String etag, Instant createdAt);
+
+    @Modifying
+    @Query("DELETE FROM upload_session_parts WHERE upload_id = :uploadId")
+    Mono<Integer> deleteByUploadId(UUID uploadId);
+}
@@ -0,0 +1,31 @@
+package com.ashish.clubs.services.mediaservice.repository;
+
+import com.ashish.clubs.services.mediaservice.entity.UploadSessionEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends R2dbcRepository<UploadSessionEntity, UUID> {
+
+    /**
+     * Moves the session from {@code expected} to {@code status}; the update count tells whether this
+     * caller won, so two concurrent completions cannot both proceed.
+     */
+    @Modifying
+    @Query("UPDATE upload_sessions SET status = :status, updated_at = :updatedAt WHERE upload_id = :uploadId AND status = :expected")
+    Mono<Integer> transition(UUID uploadId, String expected, String status, Instant updatedAt);
+
+    /**
+     * Sessions in progress that expired, and completions that have not finished since {@code completingBefore}.
+     */
+    @Query("SELECT * FROM upload_sessions WHERE (status = 'IN_PROGRESS' AND expires_at < :now) " +
+            "OR (status = 'COMPLETING' AND updated_at < :completingBefore) ORDER BY expires_at LIMIT :limit")
+    Flux<UploadSessionEntity> findExpired(Instant now, Instant completingBefore, int limit);
+}
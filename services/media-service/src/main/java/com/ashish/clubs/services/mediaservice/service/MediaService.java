@@ -2,6 +2,7 @@ package com.ashish.clubs.services.mediaservice.service;
 
 import com.ashish.clubs.common.config.AppConstants;
 import com.ashish.clubs.common.messaging.event.DomainEvent;
+import com.ashish.clubs.common.messaging.producer.DeliveryMode;
 import com.ashish.clubs.common.messaging.producer.KafkaEventProducer;
 import com.ashish.clubs.common.models.media.MediaFile;
 import com.ashish.clubs.services.mediaservice.entity.MediaFileEntity;
@@ -10,130 +11,219 @@ import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.GetObjectArgs;
 import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
 import io.minio.messages.Tags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
-import java.io.ByteArrayInputStream;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MediaService {
 
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
     private final MediaFileRepository mediaFileRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final KafkaEventProducer kafkaEventProducer;
     private final MinioClient minioClient;
+    private final ParallelMultipartUploader multipartUploader;
 
     @Value("${minio.bucket-name}")
     private String bucketName;
 
     /**
-     * Upload a file to MinIO
+     * Upload a file to MinIO.
+     * The content is streamed through {@link ParallelMultipartUploader}: it is cut into parts as it arrives,
+     * several parts are sent at once, and memory per upload is bounded by the parts in flight, whatever
+     * the file size.
      */
     public Mono<MediaFile> uploadFile(FilePart filePart, String uploaderId, String entityType, String entityId) {
         log.info("Uploading file: {} for entity: {}", filePart.filename(), entityType);
 
         String mediaId = UUID.randomUUID().toString();
         String minioPath = String.format("%s/%s", entityType.toLowerCase(), mediaId);
-
-        return filePart.content()
-                .collectList()
-                .map(dataBuffers -> {
-                    int totalSize = dataBuffers.stream()
-                            .mapToInt(dataBuffer -> dataBuffer.readableByteCount())
-                            .sum();
-
-                    byte[] fileBytes = new byte[totalSize];
-                    int pos = 0;
-                    for (var dataBuffer : dataBuffers) {
-                        int readableByteCount = dataBuffer.readableByteCount();
-                        dataBuffer.read(fileBytes, pos, readableByteCount);
-                        pos += readableByteCount;
-                    }
-                    return fileBytes;
-                })
-                .publishOn(Schedulers.boundedElastic())
-                .flatMap(fileBytes -> {
-                    try {
-                        // Upload to MinIO
-                        minioClient.putObject(
-                                PutObjectArgs.builder()
-                                        .bucket(bucketName)
-                                        .object(minioPath)
-                                        .stream(new ByteArrayInputStream(fileBytes), fileBytes.length, -1)
-                                        .contentType(filePart.headers().getContentType() != null ?
-                                                filePart.headers().getContentType().toString() : "application/octet-stream")
-                                        .build()
-                        );
-
-                        // Create database entry
-                        MediaFileEntity entity = MediaFileEntity.builder()
-                                .mediaId(UUID.fromString(mediaId))
-                                .fileName(filePart.filename())
-                                .fileSize((long) fileBytes.length)
-                                .mimeType(filePart.headers().getContentType() != null ?
-                                        filePart.headers().getContentType().toString() : "application/octet-stream")
-                                .uploaderId(UUID.fromString(uploaderId))
-                                .entityType(entityType)
-                                .entityId(entityId)
-                                .minioPath(minioPath)
-                                .url(String.format("%s/%s/%s", "minio", bucketName, minioPath))
-                                .status("ACTIVE")
-                                .createdAt(Instant.now())
-                                .updatedAt(Instant.now())
-                                .build();
-
-                        return mediaFileRepository.save(entity);
-                    } catch (Exception e) {
-                        log.error("Error uploading file to MinIO", e);
-                        return Mono.error(e);
-                    }
-                })
-                .flatMap(savedEntity -> {
-                    MediaFile mediaFile = entityToModel(savedEntity);
-
-                    // Publish MEDIA_UPLOADED event
-                    DomainEvent event = DomainEvent.builder()
-                            .eventId(UUID.randomUUID().toString())
-                            .eventType("MEDIA_UPLOADED")
-                            .sourceService("media-service")
-                            .entityId(mediaId)
-                            .entityType("MEDIA_FILE")
-                            .actorId(uploaderId)
-                            .payload(mediaFile)
-                            .timestamp(Instant.now())
+        String contentType = filePart.headers().getContentType() != null ?
+                filePart.headers().getContentType().toString() : "application/octet-stream";
+
+        AtomicLong fileSize = new AtomicLong();
+        Flux<DataBuffer> content = filePart.content()
+                .doOnNext(dataBuffer -> fileSize.addAndGet(dataBuffer.readableByteCount()));
+
+        return multipartUploader.upload(minioPath, contentType, content)
+                .doOnError(e -> log.error("Error uploading file to MinIO", e))
+                .flatMap(response -> {
+                    // Create database entry
+                    MediaFileEntity entity = MediaFileEntity.builder()
+                            .mediaId(UUID.fromString(mediaId))
+                            .fileName(filePart.filename())
+                            .fileSize(fileSize.get())
+                            .mimeType(contentType)
+                            .uploaderId(UUID.fromString(uploaderId))
+                            .entityType(entityType)
+                            .entityId(entityId)
+                            .minioPath(minioPath)
+                            .url(contentUrl(UUID.fromString(mediaId)))
+                            .status("ACTIVE")
+                            .createdAt(Instant.now())
+                            .updatedAt(Instant.now())
                             .build();
 
-                    return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_ANALYTICS_EVENTS, event)
-                            .thenReturn(mediaFile)
-                            .doOnError(ex -> log.error("Failed to publish media upload event", ex));
+                    return recordUpload(entity);
                 });
     }
 
+    /**
+     * Stores the metadata of an uploaded file and publishes MEDIA_UPLOADED.
+     * The row is inserted explicitly: the media id is assigned up front, so save() would issue an UPDATE.
+     */
+    public Mono<MediaFile> recordUpload(MediaFileEntity entity) {
+        return r2dbcEntityTemplate.insert(entity)
+                .flatMap(this::publishUploaded);
+    }
+
+    /**
+     * Like {@link #recordUpload}, but a file already recorded under the same id is left as it is, so a retried
+     * completion can call it again. Only the call that inserts the row publishes MEDIA_UPLOADED.
+     */
+    public Mono<MediaFile> recordUploadIfAbsent(MediaFileEntity entity) {
+        return mediaFileRepository.insertActiveIfAbsent(entity.getMediaId(), entity.getFileName(), entity.getFileSize(),
+                        entity.getMimeType(), entity.getUploaderId(), entity.getEntityType(), entity.getEntityId(),
+                        entity.getMinioPath(), entity.getUrl(), entity.getCreatedAt())
+                .flatMap(inserted -> inserted > 0
+                        ? publishUploaded(entity)
+                        : mediaFileRepository.findByMediaId(entity.getMediaId()).map(this::entityToModel));
+    }
+
+    /**
+     * Publishes MEDIA_UPLOADED for a stored file.
+     */
+    public Mono<MediaFile> publishUploaded(MediaFileEntity entity) {
+        MediaFile mediaFile = entityToModel(entity);
+
+        // Publish MEDIA_UPLOADED event
+        DomainEvent event = DomainEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("MEDIA_UPLOADED")
+                .sourceService("media-service")
+                .entityId(mediaFile.getMediaId())
+                .entityType("MEDIA_FILE")
+                .actorId(mediaFile.getUploaderId())
+                .payload(mediaFile)
+                .timestamp(Instant.now())
+                .build();
+
+        // Analytics only, must never hold up or fail the upload
+        return kafkaEventProducer.publishEvent(AppConstants.KAFKA_TOPIC_ANALYTICS_EVENTS, event, DeliveryMode.BEST_EFFORT)
+                .thenReturn(mediaFile)
+                .doOnError(ex -> log.error("Failed to publish media upload event", ex));
+    }
+
     /**
      * Get media file by ID
      */
     public Mono<MediaFile> getMediaFileById(UUID mediaId) {
         return mediaFileRepository.findByMediaId(mediaId)
+                .filter(MediaService::isActive)
                 .map(this::entityToModel);
     }
 
+    /**
+     * Get what a download of the media file needs: its size, ETag and last modification time, read from
+     * MinIO with a single HEAD request.
+     *
+     * @return The stored object, or empty if the file or its object does not exist
+     */
+    public Mono<MediaContent> getMediaContent(UUID mediaId) {
+        return mediaFileRepository.findByMediaId(mediaId)
+                .filter(MediaService::isActive)
+                .flatMap(entity -> Mono.fromCallable(() -> minioClient.statObject(
+                                StatObjectArgs.builder()
+                                        .bucket(bucketName)
+                                        .object(entity.getMinioPath())
+                                        .build()))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .map(stat -> new MediaContent(
+                                entity.getMinioPath(),
+                                entity.getFileName(),
+                                stat.contentType() != null ? stat.contentType() : entity.getMimeType(),
+                                stat.size(),
+                                stat.etag(),
+                                stat.lastModified().toInstant())))
+                .onErrorResume(ErrorResponseException.class, e -> "NoSuchKey".equals(e.errorResponse().code())
+                        ? Mono.<MediaContent>empty()
+                        : Mono.<MediaContent>error(e));
+    }
+
+    /**
+     * Stream {@code length} bytes of a stored object from {@code offset}.
+     * The object is read from MinIO as the client consumes it, {@link #DOWNLOAD_BUFFER_SIZE} bytes at a
+     * time, so nothing is buffered beyond the buffers in flight; cancelling closes the MinIO response.
+     */
+    public Flux<DataBuffer> readContent(String minioPath, long offset, long length) {
+        if (length == 0) {
+            return Flux.empty();
+        }
+        return DataBufferUtils.readInputStream(
+                        () -> minioClient.getObject(
+                                GetObjectArgs.builder()
+                                        .bucket(bucketName)
+                                        .object(minioPath)
+                                        .offset(offset)
+                                        .length(length)
+                                        .build()),
+                        DefaultDataBufferFactory.sharedInstance,
+                        DOWNLOAD_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic()); // Reads block, requests are served on this worker too
+    }
+
+    /**
+     * A stored media object, as needed to answer a download.
+     *
+     * @param etag         The object's ETag, unquoted
+     * @param lastModified When the object was stored
+     */
+    public record MediaContent(String minioPath, String fileName, String contentType, long size, String etag,
+                               Instant lastModified) {
+    }
+
     // Helper methods
+
+    /**
+     * @return Whether the file is stored and recorded, as opposed to e.g. a presigned upload still pending
+     */
+    static boolean isActive(MediaFileEntity entity) {
+        return "ACTIVE".equals(entity.getStatus());
+    }
+
+    /**
+     * @return The path of the download endpoint of the media file
+     */
+    String contentUrl(UUID mediaId) {
+        return AppConstants.API_V1_PREFIX + "/media/" + mediaId + "/content";
+    }
+
     private MediaFile entityToModel(MediaFileEntity entity) {
         return MediaFile.builder()
                 .mediaId(entity.getMediaId().toString())
                 .fileName(entity.getFileName())
                 .fileSize(entity.getFileSize())
                 .mimeType(entity.getMimeType())
-                .url(entity.getUrl())
+                .url(contentUrl(entity.getMediaId())) // Also for files stored with the old, non-resolvable url
                 .uploaderId(entity.getUploaderId().toString())
                 .associatedEntityType(entity.getEntityType())
                 .associatedEntityId(entity.getEntityId())
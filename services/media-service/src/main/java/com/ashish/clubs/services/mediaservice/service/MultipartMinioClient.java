@@ -0,0 +1,103 @@
+package com.ashish.clubs.services.mediaservice.service;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.messages.Part;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MinioAsyncClient} exposing the S3 multipart upload calls, which MinIO only offers to subclasses.
+ * Checked exceptions thrown while building a request are returned as failed futures.
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * @return Future of the id of the new multipart upload
+     */
+    public CompletableFuture<String> initiateUpload(String bucket, String object, String contentType) {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        try {
+            return createMultipartUploadAsync(bucket, null, object, headers, null)
+                    .thenApply(response -> response.result().uploadId());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return Future of the uploaded part, with the ETag to pass to {@link #completeUpload}
+     */
+    public CompletableFuture<Part> uploadPart(String bucket, String object, String uploadId, int partNumber, byte[] data) {
+        try {
+            return uploadPartAsync(bucket, null, object, data, data.length, uploadId, partNumber, null, null)
+                    .thenApply(response -> new Part(partNumber, response.etag()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @param parts All parts of the upload, in part number order
+     */
+    public CompletableFuture<ObjectWriteResponse> completeUpload(String bucket, String object, String uploadId, Part[] parts) {
+        try {
+            return completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Discards the upload and the parts stored so far.
+     */
+    public CompletableFuture<Void> abortUpload(String bucket, String object, String uploadId) {
+        try {
+            return abortMultipartUploadAsync(bucket, null, object, uploadId, null, null)
+                    .thenApply(response -> null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return Future of the object's metadata, failed with a {@code NoSuchKey} error response if it does not exist
+     */
+    public CompletableFuture<StatObjectResponse> stat(String bucket, String object) {
+        try {
+            return statObject(StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .build());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stores a small object in a single request.
+     */
+    public CompletableFuture<ObjectWriteResponse> putBytes(String bucket, String object, String contentType, byte[] data) {
+        try {
+            return putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .stream(new ByteArrayInputStream(data), data.length, -1)
+                    .contentType(contentType)
+                    .build());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.ashish.clubs.services.mediaservice.service;
+
+import io.minio.ObjectWriteResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.ServerException;
+import io.minio.messages.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Uploads a stream of bytes to MinIO as an S3 multipart upload, sending up to {@code part-concurrency}
+ * parts of one upload at a time.
+ * <p>
+ * The content is cut into parts of {@code part-size} bytes as it arrives; a part is only read once a
+ * slot is free, so an upload holds at most {@code part-concurrency + 1} parts in memory. Across all
+ * uploads, {@link MultipartMinioClient} runs at most {@code max-in-flight-parts} requests at once and
+ * queues the others (see {@code MinIOConfig}). Content that fits in one part is stored with a single
+ * PUT instead.
+ * <p>
+ * Failed parts are retried with backoff on network and server errors. If the upload still fails, or
+ * the caller cancels it, the multipart upload is aborted so MinIO drops the parts already stored.
+ */
+@Slf4j
+@Component
+public class ParallelMultipartUploader {
+
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes(); // S3 minimum, except for the last part
+    static final int MAX_PARTS = 10_000; // S3 maximum
+    private static final int CONTENT_PREFETCH = 16;
+    private static final Set<String> RETRYABLE_ERROR_CODES = Set.of("InternalError", "SlowDown", "ServiceUnavailable", "RequestTimeout");
+
+    private final MultipartMinioClient client;
+    private final String bucketName;
+    private final int partSize;
+    private final int partConcurrency;
+    private final int partRetries;
+
+    public ParallelMultipartUploader(MultipartMinioClient client,
+                                     @Value("${minio.bucket-name}") String bucketName,
+                                     @Value("${minio.upload.part-size:8MB}") DataSize partSize,
+                                     @Value("${minio.upload.part-concurrency:4}") int partConcurrency,
+                                     @Value("${minio.upload.part-retries:3}") int partRetries) {
+        if (partSize.toBytes() < MIN_PART_SIZE || partSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("minio.upload.part-size must be between 5MB and 2GB, was " + partSize);
+        }
+        this.client = client;
+        this.bucketName = bucketName;
+        this.partSize = (int) partSize.toBytes();
+        this.partConcurrency = Math.max(1, partConcurrency);
+        this.partRetries = partRetries;
+    }
+
+    /**
+     * Stores the content under {@code object}. Each buffer is released once it is copied into a part.
+     *
+     * @return Mono emitting the MinIO response once the object is complete
+     */
+    public Mono<ObjectWriteResponse> upload(String object, String contentType, Flux<DataBuffer> content) {
+        return toParts(content)
+                .switchOnFirst((first, parts) -> first.hasValue() && first.get().last()
+                        ? Mono.fromFuture(() -> client.putBytes(bucketName, object, contentType, first.get().data())).flux()
+                        : uploadMultipart(object, contentType, parts).flux())
+                .single();
+    }
+
+    private Mono<ObjectWriteResponse> uploadMultipart(String object, String contentType, Flux<PartData> parts) {
+        return initiate(object, contentType)
+                .flatMap(uploadId -> parts
+                        .index()
+                        .flatMap(indexed -> uploadPart(object, uploadId, (int) (indexed.getT1() + 1), indexed.getT2().data()),
+                                partConcurrency)
+                        .collectList()
+                        .flatMap(uploaded -> complete(object, uploadId, uploaded))
+                        .onErrorResume(e -> abort(object, uploadId).then(Mono.<ObjectWriteResponse>error(e)))
+                        .doOnCancel(() -> abort(object, uploadId).subscribe()));
+    }
+
+    /**
+     * Starts a multipart upload.
+     *
+     * @return Mono emitting the S3 upload id
+     */
+    Mono<String> initiate(String object, String contentType) {
+        return Mono.fromFuture(() -> client.initiateUpload(bucketName, object, contentType));
+    }
+
+    /**
+     * Uploads one part, retrying network and server errors with backoff. Uploading a part number again
+     * replaces the part.
+     */
+    Mono<Part> uploadPart(String object, String uploadId, int partNumber, byte[] data) {
+        if (partNumber > MAX_PARTS) {
+            return Mono.error(new IllegalArgumentException("Upload exceeds " + MAX_PARTS + " parts of " + partSize + " bytes"));
+        }
+        return Mono.fromFuture(() -> client.uploadPart(bucketName, object, uploadId, partNumber, data))
+                .retryWhen(Retry.backoff(partRetries, Duration.ofMillis(200))
+                        .filter(ParallelMultipartUploader::isRetryable)
+                        .doBeforeRetry(signal -> log.warn("Retrying part {} of {} after: {}",
+                                partNumber, object, signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Assembles the uploaded parts, in any order, into the object.
+     */
+    Mono<ObjectWriteResponse> complete(String object, String uploadId, List<Part> parts) {
+        Part[] ordered = parts.stream()
+                .sorted(Comparator.comparingInt(Part::partNumber))
+                .toArray(Part[]::new);
+        return Mono.fromFuture(() -> client.completeUpload(bucketName, object, uploadId, ordered))
+                .doOnNext(response -> log.debug("Completed multipart upload of {} ({})", object, uploadId));
+    }
+
+    /**
+     * @return Mono emitting whether the object exists; a multipart upload's object only does once it is completed
+     */
+    Mono<Boolean> exists(String object) {
+        return Mono.fromFuture(() -> client.stat(bucketName, object))
+                .thenReturn(true)
+                .onErrorResume(ErrorResponseException.class, e -> "NoSuchKey".equals(e.errorResponse().code())
+                        ? Mono.just(false)
+                        : Mono.error(e));
+    }
+
+    /**
+     * Aborts a multipart upload, so MinIO drops its parts. Never fails.
+     */
+    Mono<Void> abort(String object, String uploadId) {
+        return Mono.fromFuture(() -> client.abortUpload(bucketName, object, uploadId))
+                .doOnSuccess(v -> log.info("Aborted multipart upload of {} ({})", object, uploadId))
+                .onErrorResume(e -> {
+                    // MinIO's lifecycle cleanup removes the upload's parts eventually
+                    log.warn("Failed to abort multipart upload of {} ({}): {}", object, uploadId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * @return The part size, which is also the minimum size of every part but the last.
+     */
+    int partSize() {
+        return partSize;
+    }
+
+    private Flux<PartData> toParts(Flux<DataBuffer> content) {
+        return Flux.defer(() -> {
+                    PartAssembler assembler = new PartAssembler(partSize);
+                    return content
+                            .concatMapIterable(assembler::append, CONTENT_PREFETCH)
+                            .concatWith(Mono.fromSupplier(assembler::finish));
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof ErrorResponseException errorResponse) {
+            return RETRYABLE_ERROR_CODES.contains(errorResponse.errorResponse().code());
+        }
+        return e instanceof IOException || e instanceof ServerException;
+    }
+
+    /**
+     * The bytes of one part. {@code last} is set on the final part only, so a single part that is also the
+     * last one can be stored without a multipart upload.
+     */
+    private record PartData(byte[] data, boolean last) {
+    }
+
+    /**
+     * Copies incoming buffers into part-sized arrays. A full part is only emitted once more content
+     * arrives, so the part emitted when the content ends is known to be the last one.
+     */
+    private static final class PartAssembler {
+
+        private final int partSize;
+        private byte[] current;
+        private int position;
+
+        private PartAssembler(int partSize) {
+            this.partSize = partSize;
+        }
+
+        private List<PartData> append(DataBuffer buffer) {
+            try {
+                List<PartData> full = new ArrayList<>(1);
+                while (buffer.readableByteCount() > 0) {
+                    if (current != null && position == partSize) {
+                        full.add(new PartData(current, false));
+                        current = null;
+                    }
+                    if (current == null) {
+                        current = new byte[partSize];
+                        position = 0;
+                    }
+                    int length = Math.min(buffer.readableByteCount(), partSize - position);
+                    buffer.read(current, position, length);
+                    position += length;
+                }
+                return full;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        private PartData finish() {
+            byte[] data = current == null ? new byte[0]
+                    : position == partSize ? current
+                    : Arrays.copyOf(current, position);
+            current = null;
+            return new PartData(data, true);
+        }
+    }
+}
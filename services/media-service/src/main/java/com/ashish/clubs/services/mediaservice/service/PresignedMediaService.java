@@ -0,0 +1,348 @@
+package com.ashish.clubs.services.mediaservice.service;
+
+import com.ashish.clubs.common.models.media.MediaFile;
+import com.ashish.clubs.common.models.media.PresignedUrl;
+import com.ashish.clubs.services.mediaservice.entity.MediaFileEntity;
+import com.ashish.clubs.services.mediaservice.repository.MediaFileRepository;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.ContentDisposition;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Presigned uploads and downloads: the client transfers the bytes directly with MinIO, so they pass
+ * through neither the gateway nor this service.
+ * <p>
+ * An upload is recorded as a PENDING media file with a presigned PUT URL for a staging key under
+ * {@value #STAGING_PREFIX}. Once the client has stored the object it calls {@link #complete(UUID)}, which
+ * stats the staged object, copies it server-side to the file's own path and records the file as ACTIVE with
+ * the size and type MinIO reports, then drops the staged object and publishes MEDIA_UPLOADED. The PUT URL
+ * stays valid until it expires, but can then only write to the staging key, never to the completed file.
+ * Pending files not completed within the URL's lifetime and a grace period are removed, together with any
+ * object stored for them, and so are staged objects that old.
+ * <p>
+ * The URLs are signed offline for {@code minio.public-url}, the MinIO endpoint as clients reach it, which
+ * may differ from the internal {@code minio.url}. The signature covers the host, so the URL cannot be
+ * rewritten afterwards.
+ */
+@Slf4j
+@Service
+public class PresignedMediaService {
+
+    public static final String PENDING = "PENDING";
+    public static final String STAGING_PREFIX = "_staging/"; // Apart from the {entity type}/{id} paths of stored files
+
+    private static final int CLEANUP_BATCH_SIZE = 100;
+    private static final long MAX_SINGLE_PUT_SIZE = DataSize.ofGigabytes(5).toBytes(); // S3 limit of one PUT
+
+    private final MinioClient minioClient;
+    private final MinioClient presignClient;
+    private final MediaFileRepository mediaFileRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final MediaService mediaService;
+    private final String bucketName;
+    private final Duration uploadExpiry;
+    private final Duration downloadExpiry;
+    private final long maxFileSize;
+    private final Duration cleanupInterval;
+
+    private Disposable scheduledCleanup;
+
+    public PresignedMediaService(MinioClient minioClient,
+                                 MediaFileRepository mediaFileRepository,
+                                 R2dbcEntityTemplate r2dbcEntityTemplate,
+                                 MediaService mediaService,
+                                 @Value("${minio.public-url:${minio.url}}") String publicUrl,
+                                 @Value("${minio.region:us-east-1}") String region,
+                                 @Value("${minio.access-key}") String accessKey,
+                                 @Value("${minio.secret-key}") String secretKey,
+                                 @Value("${minio.bucket-name}") String bucketName,
+                                 @Value("${minio.presigned.upload-expiry:PT15M}") Duration uploadExpiry,
+                                 @Value("${minio.presigned.download-expiry:PT1H}") Duration downloadExpiry,
+                                 @Value("${minio.presigned.max-file-size:1GB}") DataSize maxFileSize,
+                                 @Value("${minio.presigned.cleanup-interval:PT15M}") Duration cleanupInterval) {
+        if (maxFileSize.toBytes() > MAX_SINGLE_PUT_SIZE) {
+            throw new IllegalArgumentException("minio.presigned.max-file-size must be at most 5GB, was " + maxFileSize);
+        }
+        this.minioClient = minioClient;
+        // With the region given, signing needs no bucket location lookup and so never calls MinIO
+        this.presignClient = MinioClient.builder()
+                .endpoint(publicUrl)
+                .region(region)
+                .credentials(accessKey, secretKey)
+                .build();
+        this.mediaFileRepository = mediaFileRepository;
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.mediaService = mediaService;
+        this.bucketName = bucketName;
+        this.uploadExpiry = uploadExpiry;
+        this.downloadExpiry = downloadExpiry;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.cleanupInterval = cleanupInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduledCleanup = Flux.interval(cleanupInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> removeAbandoned()
+                        .onErrorResume(e -> {
+                            log.warn("Failed to remove abandoned presigned uploads: {}", e.getMessage());
+                            return Mono.just(0L);
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduledCleanup != null) {
+            scheduledCleanup.dispose();
+        }
+    }
+
+    /**
+     * Record a pending upload and issue the URL to PUT its bytes to.
+     */
+    public Mono<PresignedUrl> initiateUpload(String fileName, String contentType, UUID uploaderId,
+                                             String entityType, String entityId) {
+        UUID mediaId = UUID.randomUUID();
+        String minioPath = String.format("%s/%s", entityType.toLowerCase(), mediaId);
+        Instant now = Instant.now();
+        MediaFileEntity entity = MediaFileEntity.builder()
+                .mediaId(mediaId)
+                .fileName(fileName)
+                .mimeType(contentType != null ? contentType : "application/octet-stream")
+                .uploaderId(uploaderId)
+                .entityType(entityType)
+                .entityId(entityId)
+                .minioPath(minioPath)
+                .url(mediaService.contentUrl(mediaId))
+                .status(PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        log.info("Issuing presigned upload {} of {} for entity: {}", mediaId, fileName, entityType);
+
+        return r2dbcEntityTemplate.insert(entity)
+                .map(saved -> presign(Method.PUT, saved, stagingPath(saved), uploadExpiry, Map.of()));
+    }
+
+    /**
+     * Record a presigned upload once the client has stored the object, and publish MEDIA_UPLOADED.
+     * Fails with IllegalStateException if the object is not stored yet or the upload was already
+     * completed, and with IllegalArgumentException, dropping the upload, if the object is too large.
+     *
+     * @return Mono emitting the media file, or empty if {@code uploaderId} started no such upload
+     */
+    public Mono<MediaFile> complete(UUID mediaId, UUID uploaderId) {
+        return mediaFileRepository.findByMediaId(mediaId)
+                .filter(entity -> entity.getUploaderId().equals(uploaderId))
+                .flatMap(entity -> {
+                    if (!PENDING.equals(entity.getStatus())) {
+                        return Mono.error(new IllegalStateException("Upload is already completed"));
+                    }
+                    return statObject(stagingPath(entity))
+                            .switchIfEmpty(Mono.error(new IllegalStateException("Object has not been uploaded")))
+                            .flatMap(stat -> stat.size() > maxFileSize
+                                    ? remove(entity).then(Mono.<MediaFile>error(new IllegalArgumentException(
+                                            "File exceeds " + maxFileSize + " bytes")))
+                                    : promote(entity, stat).then(activate(entity, stat)))
+                            .flatMap(file -> removeObject(stagingPath(entity))
+                                    .onErrorResume(e -> {
+                                        log.warn("Failed to remove staged object of {}, left to the cleanup: {}",
+                                                mediaId, e.getMessage());
+                                        return Mono.empty();
+                                    })
+                                    .thenReturn(file));
+                });
+    }
+
+    /**
+     * Issue a URL to GET a stored file's bytes from, served inline under the file's name.
+     */
+    public Mono<PresignedUrl> presignDownload(UUID mediaId) {
+        return mediaFileRepository.findByMediaId(mediaId)
+                .filter(MediaService::isActive)
+                .map(entity -> presign(Method.GET, entity, entity.getMinioPath(), downloadExpiry, Map.of(
+                        "response-content-disposition", ContentDisposition.inline()
+                                .filename(entity.getFileName(), StandardCharsets.UTF_8)
+                                .build()
+                                .toString())));
+    }
+
+    /**
+     * Copies the staged object to the file's own path, on the MinIO server. The copy is conditional on the
+     * ETag that was stat'ed, so an object the client overwrote after the size check is not promoted.
+     */
+    private Mono<Void> promote(MediaFileEntity entity, StatObjectResponse stat) {
+        return Mono.fromCallable(() -> minioClient.copyObject(CopyObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(entity.getMinioPath())
+                        .source(CopySource.builder()
+                                .bucket(bucketName)
+                                .object(stagingPath(entity))
+                                .matchETag(stat.etag())
+                                .build())
+                        .build()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(ErrorResponseException.class, e -> "PreconditionFailed".equals(e.errorResponse().code())
+                        ? new IllegalStateException("Object changed while completing the upload")
+                        : e)
+                .then();
+    }
+
+    private Mono<MediaFile> activate(MediaFileEntity entity, StatObjectResponse stat) {
+        String mimeType = stat.contentType() != null ? stat.contentType() : entity.getMimeType();
+        Instant now = Instant.now();
+        return mediaFileRepository.activatePending(entity.getMediaId(), stat.size(), mimeType, now)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(new IllegalStateException("Upload is already completed"));
+                    }
+                    entity.setFileSize(stat.size());
+                    entity.setMimeType(mimeType);
+                    entity.setStatus("ACTIVE");
+                    entity.setUpdatedAt(now);
+                    return mediaService.publishUploaded(entity);
+                });
+    }
+
+    private PresignedUrl presign(Method method, MediaFileEntity entity, String objectName, Duration expiry,
+                                 Map<String, String> queryParams) {
+        Instant expiresAt = Instant.now().plus(expiry);
+        try {
+            String url = presignClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                    .extraQueryParams(queryParams)
+                    .build());
+            return PresignedUrl.builder()
+                    .mediaId(entity.getMediaId().toString())
+                    .method(method.name())
+                    .url(url)
+                    .expiresAt(expiresAt)
+                    .build();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to presign " + method + " of " + objectName, e);
+        }
+    }
+
+    /**
+     * @return Mono emitting the object's metadata, or empty if there is no such object
+     */
+    private Mono<StatObjectResponse> statObject(String minioPath) {
+        return Mono.fromCallable(() -> minioClient.statObject(StatObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(minioPath)
+                        .build()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ErrorResponseException.class, e -> "NoSuchKey".equals(e.errorResponse().code())
+                        ? Mono.<StatObjectResponse>empty()
+                        : Mono.<StatObjectResponse>error(e));
+    }
+
+    private static String stagingPath(MediaFileEntity entity) {
+        return STAGING_PREFIX + entity.getMinioPath();
+    }
+
+    /**
+     * Drops a pending upload and whatever objects were stored for it. The row goes first, so an upload
+     * completed concurrently keeps its object.
+     *
+     * @return Mono emitting true if the pending upload was removed
+     */
+    private Mono<Boolean> remove(MediaFileEntity entity) {
+        return mediaFileRepository.deletePending(entity.getMediaId())
+                .filter(deleted -> deleted > 0)
+                .flatMap(deleted -> removeObject(stagingPath(entity))
+                        .then(removeObject(entity.getMinioPath()))
+                        .thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Void> removeObject(String objectName) {
+        return Mono.fromRunnable(() -> {
+                    try {
+                        minioClient.removeObject(RemoveObjectArgs.builder()
+                                .bucket(bucketName)
+                                .object(objectName)
+                                .build());
+                    } catch (Exception e) {
+                        throw Exceptions.propagate(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * Removes pending uploads whose URL expired at least one URL lifetime ago, so a PUT still in
+     * flight when the URL expired has had time to finish and be completed.
+     */
+    private Mono<Long> removeAbandoned() {
+        Instant before = Instant.now().minus(uploadExpiry.multipliedBy(2));
+        Mono<Long> uploads = mediaFileRepository.findPendingCreatedBefore(before, CLEANUP_BATCH_SIZE)
+                .concatMap(this::remove)
+                .filter(removed -> removed)
+                .count()
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        log.info("Removed {} abandoned presigned uploads", count);
+                    }
+                });
+        return uploads.flatMap(count -> removeStagedBefore(before).thenReturn(count));
+    }
+
+    /**
+     * Removes staged objects older than the given instant: ones whose removal after completion failed, and
+     * ones a client PUT again after completing the upload.
+     */
+    private Mono<Void> removeStagedBefore(Instant before) {
+        return Flux.defer(() -> Flux.fromIterable(minioClient.listObjects(ListObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .prefix(STAGING_PREFIX)
+                        .recursive(true)
+                        .build())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(result -> {
+                    try {
+                        return result.get();
+                    } catch (Exception e) {
+                        throw Exceptions.propagate(e);
+                    }
+                })
+                .filter(item -> item.lastModified().toInstant().isBefore(before))
+                .take(CLEANUP_BATCH_SIZE)
+                .concatMap(item -> removeObject(item.objectName()))
+                .then();
+    }
+}
@@ -0,0 +1,372 @@
+package com.ashish.clubs.services.mediaservice.service;
+
+import com.ashish.clubs.common.models.media.MediaFile;
+import com.ashish.clubs.common.models.media.UploadSession;
+import com.ashish.clubs.services.mediaservice.entity.MediaFileEntity;
+import com.ashish.clubs.services.mediaservice.entity.UploadPartEntity;
+import com.ashish.clubs.services.mediaservice.entity.UploadSessionEntity;
+import com.ashish.clubs.services.mediaservice.repository.UploadPartRepository;
+import com.ashish.clubs.services.mediaservice.repository.UploadSessionRepository;
+import io.minio.messages.Part;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resumable uploads: the client initiates an upload, sends its chunks in any order and over as many
+ * requests as it likes, asks which chunks arrived after a dropped connection, and completes it.
+ * <p>
+ * Each chunk is uploaded straight to MinIO as one part of an S3 multipart upload and recorded in
+ * {@code upload_session_parts}, so a retry only resends the chunks that are missing and no request
+ * holds more than one chunk in memory. Completing assembles the parts in MinIO and records the file
+ * like a single-request upload. Sessions not completed before they expire are aborted.
+ * <p>
+ * Once MinIO has assembled the object the multipart upload is gone, so completing is made safe to repeat:
+ * an existing object is taken as proof the assembly already happened, and the file row is inserted only if
+ * absent. Completions still COMPLETING after {@code completing-timeout}, e.g. because the instance running
+ * them died, are settled by the expiry sweep.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETING = "COMPLETING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String ABORTED = "ABORTED";
+
+    private static final int EXPIRY_BATCH_SIZE = 100;
+    private static final long MAX_CHUNK_SIZE = DataSize.ofMegabytes(64).toBytes(); // A chunk is buffered in memory
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadPartRepository partRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final ParallelMultipartUploader multipartUploader;
+    private final MediaService mediaService;
+    private final Duration sessionTtl;
+    private final Duration expiryInterval;
+    private final Duration completingTimeout;
+
+    private Disposable scheduledExpiry;
+
+    public ResumableUploadService(UploadSessionRepository sessionRepository,
+                                  UploadPartRepository partRepository,
+                                  R2dbcEntityTemplate r2dbcEntityTemplate,
+                                  ParallelMultipartUploader multipartUploader,
+                                  MediaService mediaService,
+                                  @Value("${minio.upload.session-ttl:P1D}") Duration sessionTtl,
+                                  @Value("${minio.upload.session-expiry-interval:PT1H}") Duration expiryInterval,
+                                  @Value("${minio.upload.completing-timeout:PT15M}") Duration completingTimeout) {
+        this.sessionRepository = sessionRepository;
+        this.partRepository = partRepository;
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.multipartUploader = multipartUploader;
+        this.mediaService = mediaService;
+        this.sessionTtl = sessionTtl;
+        this.expiryInterval = expiryInterval;
+        this.completingTimeout = completingTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduledExpiry = Flux.interval(expiryInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> abortExpired()
+                        .onErrorResume(e -> {
+                            log.warn("Failed to settle expired upload sessions: {}", e.getMessage());
+                            return Mono.just(0L);
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduledExpiry != null) {
+            scheduledExpiry.dispose();
+        }
+    }
+
+    /**
+     * Start a resumable upload of a file of {@code totalSize} bytes.
+     * The chunk size is the multipart part size, grown if needed to stay within the S3 part limit.
+     */
+    public Mono<UploadSession> initiate(String fileName, String contentType, long totalSize,
+                                        UUID uploaderId, String entityType, String entityId) {
+        if (totalSize <= 0) {
+            return Mono.error(new IllegalArgumentException("totalSize must be positive"));
+        }
+        long chunkSize = Math.max(multipartUploader.partSize(),
+                (totalSize + ParallelMultipartUploader.MAX_PARTS - 1) / ParallelMultipartUploader.MAX_PARTS);
+        if (chunkSize > MAX_CHUNK_SIZE) {
+            return Mono.error(new IllegalArgumentException("File too large for a resumable upload"));
+        }
+
+        UUID uploadId = UUID.randomUUID();
+        String minioPath = String.format("%s/%s", entityType.toLowerCase(), uploadId);
+        String mimeType = contentType != null ? contentType : "application/octet-stream";
+        log.info("Starting resumable upload {} of {} ({} bytes) for entity: {}", uploadId, fileName, totalSize, entityType);
+
+        return multipartUploader.initiate(minioPath, mimeType)
+                .flatMap(s3UploadId -> {
+                    Instant now = Instant.now();
+                    UploadSessionEntity session = UploadSessionEntity.builder()
+                            .uploadId(uploadId)
+                            .s3UploadId(s3UploadId)
+                            .minioPath(minioPath)
+                            .fileName(fileName)
+                            .mimeType(mimeType)
+                            .totalSize(totalSize)
+                            .chunkSize(chunkSize)
+                            .uploaderId(uploaderId)
+                            .entityType(entityType)
+                            .entityId(entityId)
+                            .status(IN_PROGRESS)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .expiresAt(now.plus(sessionTtl))
+                            .build();
+                    return r2dbcEntityTemplate.insert(session)
+                            .onErrorResume(e -> multipartUploader.abort(minioPath, s3UploadId).then(Mono.<UploadSessionEntity>error(e)));
+                })
+                .map(session -> toModel(session, List.of()));
+    }
+
+    /**
+     * Store chunk {@code index} of the upload. The body must be exactly the chunk's length; sending a
+     * chunk again replaces it.
+     *
+     * @return Mono emitting true once the chunk is stored, or empty if {@code uploaderId} has no such upload
+     */
+    public Mono<Boolean> uploadChunk(UUID uploadId, UUID uploaderId, int index, Flux<DataBuffer> body) {
+        return findOwned(uploadId, uploaderId)
+                .flatMap(session -> {
+                    if (!IN_PROGRESS.equals(session.getStatus())) {
+                        return Mono.error(new IllegalStateException("Upload is " + session.getStatus()));
+                    }
+                    if (index < 0 || index >= session.chunkCount()) {
+                        return Mono.error(new IllegalArgumentException(
+                                "Chunk index must be between 0 and " + (session.chunkCount() - 1)));
+                    }
+                    int expectedLength = (int) session.chunkLength(index);
+                    return readChunk(body, expectedLength)
+                            .flatMap(data -> multipartUploader.uploadPart(session.getMinioPath(), session.getS3UploadId(), index + 1, data))
+                            .flatMap(part -> partRepository.upsert(uploadId, part.partNumber(), expectedLength, part.etag(), Instant.now()))
+                            .thenReturn(true);
+                });
+    }
+
+    /**
+     * Get the upload's state, including which chunks have been stored.
+     */
+    public Mono<UploadSession> getSession(UUID uploadId, UUID uploaderId) {
+        return findOwned(uploadId, uploaderId)
+                .flatMap(session -> partRepository.findByUploadIdOrderByPartNumber(uploadId)
+                        .collectList()
+                        .map(parts -> toModel(session, parts)));
+    }
+
+    /**
+     * Assemble the stored chunks into the file and record it. Fails with IllegalStateException if
+     * chunks are missing or the upload is not in progress; a failed completion can be retried.
+     */
+    public Mono<MediaFile> complete(UUID uploadId, UUID uploaderId) {
+        return findOwned(uploadId, uploaderId)
+                .flatMap(session -> partRepository.findByUploadIdOrderByPartNumber(uploadId)
+                        .collectList()
+                        .flatMap(parts -> {
+                            if (parts.size() != session.chunkCount()) {
+                                return Mono.error(new IllegalStateException(
+                                        (session.chunkCount() - parts.size()) + " chunks are missing"));
+                            }
+                            return sessionRepository.transition(uploadId, IN_PROGRESS, COMPLETING, Instant.now())
+                                    .flatMap(updated -> updated == 0
+                                            ? Mono.<MediaFile>error(new IllegalStateException("Upload is not in progress"))
+                                            : finish(session, parts));
+                        }));
+    }
+
+    /**
+     * Abandon the upload; MinIO drops the chunks stored so far.
+     *
+     * @return Mono emitting true if an upload in progress was aborted
+     */
+    public Mono<Boolean> abort(UUID uploadId, UUID uploaderId) {
+        return findOwned(uploadId, uploaderId)
+                .flatMap(session -> abort(session, IN_PROGRESS))
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * An upload is only visible to the user who started it; to anyone else it does not exist.
+     */
+    private Mono<UploadSessionEntity> findOwned(UUID uploadId, UUID uploaderId) {
+        return sessionRepository.findById(uploadId)
+                .filter(session -> session.getUploaderId().equals(uploaderId));
+    }
+
+    private Mono<MediaFile> finish(UploadSessionEntity session, List<UploadPartEntity> parts) {
+        List<Part> s3Parts = parts.stream()
+                .map(part -> new Part(part.getPartNumber(), part.getEtag()))
+                .toList();
+
+        // A previous attempt may have assembled the object and failed afterwards; completing again would fail
+        // with NoSuchUpload
+        return multipartUploader.exists(session.getMinioPath())
+                .flatMap(assembled -> assembled
+                        ? Mono.<Void>empty()
+                        : multipartUploader.complete(session.getMinioPath(), session.getS3UploadId(), s3Parts).then())
+                .then(record(session))
+                .onErrorResume(e -> {
+                    log.error("Failed to complete resumable upload {}", session.getUploadId(), e);
+                    // Back to IN_PROGRESS so the client can retry the completion
+                    return sessionRepository.transition(session.getUploadId(), COMPLETING, IN_PROGRESS, Instant.now())
+                            .then(Mono.<MediaFile>error(e));
+                });
+    }
+
+    /**
+     * Records the assembled file and marks the session completed. Safe to run again after a failure.
+     */
+    private Mono<MediaFile> record(UploadSessionEntity session) {
+        Instant now = Instant.now();
+        MediaFileEntity entity = MediaFileEntity.builder()
+                .mediaId(session.getUploadId())
+                .fileName(session.getFileName())
+                .fileSize(session.getTotalSize())
+                .mimeType(session.getMimeType())
+                .uploaderId(session.getUploaderId())
+                .entityType(session.getEntityType())
+                .entityId(session.getEntityId())
+                .minioPath(session.getMinioPath())
+                .url(mediaService.contentUrl(session.getUploadId()))
+                .status("ACTIVE")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        return mediaService.recordUploadIfAbsent(entity)
+                .flatMap(mediaFile -> sessionRepository.transition(session.getUploadId(), COMPLETING, COMPLETED, Instant.now())
+                        .then(partRepository.deleteByUploadId(session.getUploadId()))
+                        .thenReturn(mediaFile));
+    }
+
+    private Mono<Boolean> abort(UploadSessionEntity session, String expected) {
+        return sessionRepository.transition(session.getUploadId(), expected, ABORTED, Instant.now())
+                .flatMap(updated -> updated == 0
+                        ? Mono.just(false)
+                        : multipartUploader.abort(session.getMinioPath(), session.getS3UploadId())
+                                .then(partRepository.deleteByUploadId(session.getUploadId()))
+                                .thenReturn(true));
+    }
+
+    /**
+     * Settles a completion that never finished: a file MinIO already assembled is recorded, otherwise the
+     * session goes back in progress so the client can complete it again, or is aborted if it has expired.
+     *
+     * @return Mono emitting true if the session was completed or aborted
+     */
+    private Mono<Boolean> recover(UploadSessionEntity session) {
+        return multipartUploader.exists(session.getMinioPath())
+                .flatMap(assembled -> {
+                    if (assembled) {
+                        log.info("Recording resumable upload {} whose completion did not finish", session.getUploadId());
+                        return record(session).thenReturn(true);
+                    }
+                    if (session.getExpiresAt().isBefore(Instant.now())) {
+                        return abort(session, COMPLETING);
+                    }
+                    return sessionRepository.transition(session.getUploadId(), COMPLETING, IN_PROGRESS, Instant.now())
+                            .thenReturn(false);
+                });
+    }
+
+    /**
+     * One expiry sweep: aborts expired sessions in progress and settles stalled completions.
+     *
+     * @return Mono emitting the number of sessions completed or aborted
+     */
+    Mono<Long> abortExpired() {
+        Instant now = Instant.now();
+        return sessionRepository.findExpired(now, now.minus(completingTimeout), EXPIRY_BATCH_SIZE)
+                .concatMap(session -> COMPLETING.equals(session.getStatus())
+                        ? recover(session)
+                        : abort(session, IN_PROGRESS))
+                .filter(settled -> settled)
+                .count()
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        log.info("Settled {} expired or stalled upload sessions", count);
+                    }
+                });
+    }
+
+    /**
+     * Reads the chunk body into one array of the expected length, refusing to buffer more than that.
+     */
+    private static Mono<byte[]> readChunk(Flux<DataBuffer> body, int expectedLength) {
+        return DataBufferUtils.join(body, expectedLength)
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new IllegalArgumentException("Chunk is larger than " + expectedLength + " bytes"))
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Chunk body is empty")))
+                .map(buffer -> {
+                    try {
+                        if (buffer.readableByteCount() != expectedLength) {
+                            throw new IllegalArgumentException("Chunk must be " + expectedLength + " bytes, was "
+                                    + buffer.readableByteCount());
+                        }
+                        byte[] data = new byte[expectedLength];
+                        buffer.read(data);
+                        return data;
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                });
+    }
+
+    private UploadSession toModel(UploadSessionEntity session, List<UploadPartEntity> parts) {
+        List<Integer> chunks = new ArrayList<>(parts.size());
+        List<UploadSession.ByteRange> ranges = new ArrayList<>();
+        UploadSession.ByteRange current = null;
+        for (UploadPartEntity part : parts) {
+            int index = part.getPartNumber() - 1;
+            long start = index * session.getChunkSize();
+            long end = start + part.getSize() - 1;
+            chunks.add(index);
+            if (current != null && current.getEnd() + 1 == start) {
+                current.setEnd(end);
+            } else {
+                current = new UploadSession.ByteRange(start, end);
+                ranges.add(current);
+            }
+        }
+
+        return UploadSession.builder()
+                .uploadId(session.getUploadId().toString())
+                .fileName(session.getFileName())
+                .mimeType(session.getMimeType())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(session.chunkCount())
+                .receivedChunks(chunks)
+                .receivedRanges(ranges)
+                .status(session.getStatus())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
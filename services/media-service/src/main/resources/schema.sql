@@ -11,7 +11,7 @@ CREATE TABLE IF NOT EXISTS media_files (
     s3_key VARCHAR(500),
     minio_path VARCHAR(500),
     url VARCHAR(1000),
-    status VARCHAR(50) DEFAULT 'ACTIVE',
+    status VARCHAR(50) DEFAULT 'ACTIVE', -- ACTIVE, PENDING (presigned upload not completed yet)
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -20,3 +20,33 @@ CREATE INDEX IF NOT EXISTS idx_media_uploader_id ON media_files(uploader_id);
 CREATE INDEX IF NOT EXISTS idx_media_entity_id ON media_files(entity_id);
 CREATE INDEX IF NOT EXISTS idx_media_status ON media_files(status);
 
+
+-- Resumable uploads: one row per upload, whose chunks are the parts of an S3 multipart upload
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    upload_id UUID PRIMARY KEY, -- Also the media_id of the file once completed
+    s3_upload_id VARCHAR(1024) NOT NULL,
+    minio_path VARCHAR(500) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    mime_type VARCHAR(100),
+    total_size BIGINT NOT NULL,
+    chunk_size BIGINT NOT NULL, -- Every chunk but the last has exactly this size
+    uploader_id UUID NOT NULL,
+    entity_type VARCHAR(50),
+    entity_id VARCHAR(255),
+    status VARCHAR(50) DEFAULT 'IN_PROGRESS', -- IN_PROGRESS, COMPLETING, COMPLETED, ABORTED
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_status_expires ON upload_sessions(status, expires_at);
+
+CREATE TABLE IF NOT EXISTS upload_session_parts (
+    id BIGSERIAL PRIMARY KEY,
+    upload_id UUID NOT NULL REFERENCES upload_sessions(upload_id) ON DELETE CASCADE,
+    part_number INTEGER NOT NULL, -- Chunk index + 1
+    size BIGINT NOT NULL,
+    etag VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (upload_id, part_number)
+);
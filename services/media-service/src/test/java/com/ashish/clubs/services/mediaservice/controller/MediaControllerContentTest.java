@@ -0,0 +1,181 @@
+package com.ashish.clubs.services.mediaservice.controller;
+
+import com.ashish.clubs.common.security.JwtAuthFilter;
+import com.ashish.clubs.common.security.identity.IdentityHeaderSigner;
+import com.ashish.clubs.common.security.jwt.JwtUtil;
+import com.ashish.clubs.common.security.jwt.TokenDenyList;
+import com.ashish.clubs.services.mediaservice.config.SecurityConfig;
+import com.ashish.clubs.services.mediaservice.service.MediaService;
+import com.ashish.clubs.services.mediaservice.service.PresignedMediaService;
+import com.ashish.clubs.services.mediaservice.service.ResumableUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Content downloads: whole objects, single byte ranges, If-Range and conditional requests.
+ */
+@WebFluxTest(properties = {
+        "application.security.jwt.secret-key=bWVkaWEtc2VydmljZS10ZXN0LXNpZ25pbmcta2V5LTAxMjM0NTY3ODk=",
+        "application.security.jwt.expiration=60000",
+        "application.security.jwt.refresh-token.expiration=60000"
+})
+class MediaControllerContentTest {
+
+    private static final String PATH = "post/clip.mp4";
+    private static final String ETAG = "5d41402abc4b2a76b9719d911017c592";
+    private static final Instant LAST_MODIFIED = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(3600);
+
+    @Configuration
+    @Import({MediaController.class, SecurityConfig.class,
+            JwtAuthFilter.class, JwtUtil.class, TokenDenyList.class, IdentityHeaderSigner.class})
+    static class Config {
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private MediaService mediaService;
+
+    @MockitoBean
+    private ResumableUploadService resumableUploadService;
+
+    @MockitoBean
+    private PresignedMediaService presignedMediaService;
+
+    private final byte[] content = new byte[100];
+    private final AtomicBoolean contentRead = new AtomicBoolean();
+    private final UUID mediaId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        when(mediaService.getMediaContent(mediaId)).thenReturn(Mono.just(
+                new MediaService.MediaContent(PATH, "clip.mp4", "video/mp4", content.length, ETAG, LAST_MODIFIED)));
+        when(mediaService.readContent(eq(PATH), anyLong(), anyLong())).thenAnswer(inv -> Flux.defer(() -> {
+            contentRead.set(true);
+            int offset = (int) inv.<Long>getArgument(1).longValue();
+            int length = (int) inv.<Long>getArgument(2).longValue();
+            return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(content, offset, offset + length)));
+        }));
+    }
+
+    @Test
+    void wholeObjectIsServedWithItsValidators() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + ETAG + "\"")
+                .expectHeader().contentLength(content.length)
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_RANGE)
+                .expectBody(byte[].class).isEqualTo(content);
+    }
+
+    @Test
+    void rangeIsServedAsPartialContent() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .header(HttpHeaders.RANGE, "bytes=10-19")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 10-19/100")
+                .expectHeader().contentLength(10)
+                .expectBody(byte[].class).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+    }
+
+    @Test
+    void suffixRangeIsServedFromTheEnd() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .header(HttpHeaders.RANGE, "bytes=-5")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 95-99/100")
+                .expectBody(byte[].class).isEqualTo(Arrays.copyOfRange(content, 95, 100));
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .header(HttpHeaders.RANGE, "bytes=100-199")
+                .exchange()
+                .expectStatus().isEqualTo(416)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */100");
+
+        assertThat(contentRead).isFalse();
+    }
+
+    @Test
+    void rangeIsHonouredWhenIfRangeMatches() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .header(HttpHeaders.RANGE, "bytes=10-19")
+                .header(HttpHeaders.IF_RANGE, "\"" + ETAG + "\"")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 10-19/100");
+    }
+
+    @Test
+    void wholeObjectIsServedWhenIfRangeIsStale() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .header(HttpHeaders.RANGE, "bytes=10-19")
+                .header(HttpHeaders.IF_RANGE, "\"an-older-version\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_RANGE)
+                .expectBody(byte[].class).isEqualTo(content);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModifiedWithoutReadingTheObject() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        assertThat(contentRead).isFalse();
+    }
+
+    @Test
+    void unmodifiedSinceIsNotModifiedWithoutReadingTheObject() {
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", mediaId)
+                .headers(headers -> headers.setIfModifiedSince(LAST_MODIFIED))
+                .exchange()
+                .expectStatus().isNotModified();
+
+        assertThat(contentRead).isFalse();
+    }
+
+    @Test
+    void unknownMediaIsNotFound() {
+        UUID unknown = UUID.randomUUID();
+        when(mediaService.getMediaContent(unknown)).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/v1/media/{mediaId}/content", unknown)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
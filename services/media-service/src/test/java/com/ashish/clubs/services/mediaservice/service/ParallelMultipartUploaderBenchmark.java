@@ -0,0 +1,128 @@
+package com.ashish.clubs.services.mediaservice.service;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.http.HttpUtils;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.MinIOContainer;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ParallelMultipartUploader} end to end against a MinIO container standing in for S3.
+ * <p>
+ * Each invocation streams {@code objectSizeMb} of random bytes, in 64KB buffers as a request body
+ * arrives, under the same key, so the overwritten objects do not pile up in the container. 4MB fits in
+ * one 8MB part and takes the single-PUT path; 64MB is eight parts sent {@code partConcurrency} at a
+ * time. Throughput is {@code objectSizeMb} divided by the reported time per upload. Needs Docker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelMultipartUploaderBenchmark {
+
+    private static final String BUCKET = "benchmark";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"4", "64"})
+    public int objectSizeMb;
+
+    @Param({"1", "4", "8"})
+    public int partConcurrency;
+
+    private MinIOContainer minio;
+    private ParallelMultipartUploader uploader;
+    private byte[] content;
+    private String object;
+
+    @Setup
+    public void setUp() throws Exception {
+        minio = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+        minio.start();
+
+        MinioClient admin = MinioClient.builder()
+                .endpoint(minio.getS3URL())
+                .credentials(minio.getUserName(), minio.getPassword())
+                .build();
+        if (!admin.bucketExists(BucketExistsArgs.builder().bucket(BUCKET).build())) {
+            admin.makeBucket(MakeBucketArgs.builder().bucket(BUCKET).build());
+        }
+
+        // Same client as MinIOConfig builds, with its default of 32 part requests in flight
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(32);
+        dispatcher.setMaxRequestsPerHost(32);
+        long timeout = TimeUnit.MINUTES.toMillis(5);
+        OkHttpClient httpClient = HttpUtils.newDefaultHttpClient(timeout, timeout, timeout)
+                .newBuilder()
+                .dispatcher(dispatcher)
+                .build();
+        MultipartMinioClient client = new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(minio.getS3URL())
+                .credentials(minio.getUserName(), minio.getPassword())
+                .httpClient(httpClient)
+                .build());
+
+        uploader = new ParallelMultipartUploader(client, BUCKET, DataSize.ofMegabytes(8), partConcurrency, 3);
+        content = new byte[(int) DataSize.ofMegabytes(objectSizeMb).toBytes()];
+        ThreadLocalRandom.current().nextBytes(content);
+        object = "upload-" + objectSizeMb + "mb-" + partConcurrency;
+    }
+
+    @TearDown
+    public void tearDown() {
+        minio.stop();
+    }
+
+    @Benchmark
+    public ObjectWriteResponse upload() {
+        return uploader.upload(object, "application/octet-stream", body()).block();
+    }
+
+    /**
+     * The content as a stream of buffers wrapping it, without copying.
+     */
+    private Flux<DataBuffer> body() {
+        return Flux.range(0, (content.length + BUFFER_SIZE - 1) / BUFFER_SIZE)
+                .map(i -> {
+                    int offset = i * BUFFER_SIZE;
+                    int length = Math.min(BUFFER_SIZE, content.length - offset);
+                    return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(content, offset, length).slice());
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParallelMultipartUploaderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,336 @@
+package com.ashish.clubs.services.mediaservice.service;
+
+import com.ashish.clubs.common.models.media.MediaFile;
+import com.ashish.clubs.common.models.media.UploadSession;
+import com.ashish.clubs.services.mediaservice.entity.MediaFileEntity;
+import com.ashish.clubs.services.mediaservice.entity.UploadPartEntity;
+import com.ashish.clubs.services.mediaservice.entity.UploadSessionEntity;
+import com.ashish.clubs.services.mediaservice.repository.UploadPartRepository;
+import com.ashish.clubs.services.mediaservice.repository.UploadSessionRepository;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The resumable upload lifecycle, with the session and part tables and MinIO replaced by in-memory
+ * stand-ins that keep the semantics the service relies on: conditional status transitions, part upserts,
+ * and an object that exists once its multipart upload is completed.
+ */
+class ResumableUploadServiceTest {
+
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+    private static final long TOTAL_SIZE = 2L * PART_SIZE + 1024; // Chunks of 5MB, 5MB and 1KB
+
+    private final Map<UUID, UploadSessionEntity> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, SortedMap<Integer, UploadPartEntity>> parts = new ConcurrentHashMap<>();
+    private final Set<String> assembledObjects = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> recordedFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean failNextRecord = new AtomicBoolean();
+
+    private final UploadSessionRepository sessionRepository = mock(UploadSessionRepository.class);
+    private final UploadPartRepository partRepository = mock(UploadPartRepository.class);
+    private final R2dbcEntityTemplate r2dbcEntityTemplate = mock(R2dbcEntityTemplate.class);
+    private final ParallelMultipartUploader multipartUploader = mock(ParallelMultipartUploader.class);
+    private final MediaService mediaService = mock(MediaService.class);
+
+    private final UUID uploader = UUID.randomUUID();
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        stubSessionTable();
+        stubPartTable();
+        stubMinio();
+
+        when(mediaService.contentUrl(any(UUID.class))).thenAnswer(inv -> "/api/v1/media/" + inv.getArgument(0) + "/content");
+        when(mediaService.recordUploadIfAbsent(any(MediaFileEntity.class))).thenAnswer(inv -> Mono.defer(() -> {
+            MediaFileEntity entity = inv.getArgument(0);
+            if (failNextRecord.getAndSet(false)) {
+                return Mono.error(new IllegalStateException("database unavailable"));
+            }
+            recordedFiles.add(entity.getMediaId());
+            return Mono.just(MediaFile.builder()
+                    .mediaId(entity.getMediaId().toString())
+                    .fileSize(entity.getFileSize())
+                    .build());
+        }));
+
+        service = new ResumableUploadService(sessionRepository, partRepository, r2dbcEntityTemplate, multipartUploader,
+                mediaService, Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(15));
+    }
+
+    @Test
+    void chunksCanArriveInAnyOrderAndTheStatusListsThem() {
+        UUID uploadId = initiate();
+
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 2, chunk(1024))).expectNext(true).verifyComplete();
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 0, chunk(PART_SIZE))).expectNext(true).verifyComplete();
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 0, chunk(PART_SIZE))).expectNext(true).verifyComplete(); // Resent
+
+        UploadSession session = service.getSession(uploadId, uploader).block();
+        assertThat(session.getChunkCount()).isEqualTo(3);
+        assertThat(session.getReceivedChunks()).containsExactly(0, 2);
+        assertThat(session.getReceivedRanges()).hasSize(2);
+        assertThat(session.getStatus()).isEqualTo(ResumableUploadService.IN_PROGRESS);
+    }
+
+    @Test
+    void chunksOfTheWrongLengthOrIndexAreRejected() {
+        UUID uploadId = initiate();
+
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 0, chunk(PART_SIZE - 1)))
+                .verifyError(IllegalArgumentException.class);
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 2, chunk(PART_SIZE)))
+                .verifyError(IllegalArgumentException.class);
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 3, chunk(1024)))
+                .verifyError(IllegalArgumentException.class);
+
+        verify(multipartUploader, never()).uploadPart(anyString(), anyString(), anyInt(), any(byte[].class));
+        assertThat(service.getSession(uploadId, uploader).block().getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void completionAssemblesTheChunksOnceAndIsNotRepeated() {
+        UUID uploadId = initiate();
+        uploadChunks(uploadId, 0, 1);
+
+        StepVerifier.create(service.complete(uploadId, uploader))
+                .verifyErrorMessage("1 chunks are missing");
+
+        uploadChunks(uploadId, 2);
+        StepVerifier.create(service.complete(uploadId, uploader))
+                .assertNext(file -> assertThat(file.getFileSize()).isEqualTo(TOTAL_SIZE))
+                .verifyComplete();
+        StepVerifier.create(service.complete(uploadId, uploader))
+                .verifyError(IllegalStateException.class);
+
+        verify(multipartUploader, times(1)).complete(anyString(), anyString(), anyList());
+        assertThat(recordedFiles).containsExactly(uploadId);
+        assertThat(sessions.get(uploadId).getStatus()).isEqualTo(ResumableUploadService.COMPLETED);
+        assertThat(parts).doesNotContainKey(uploadId);
+    }
+
+    @Test
+    void failedCompletionCanBeRetriedWithoutAssemblingAgain() {
+        UUID uploadId = initiate();
+        uploadChunks(uploadId, 0, 1, 2);
+        failNextRecord.set(true); // MinIO assembles the object, then recording the file fails
+
+        StepVerifier.create(service.complete(uploadId, uploader))
+                .verifyErrorMessage("database unavailable");
+        assertThat(sessions.get(uploadId).getStatus()).isEqualTo(ResumableUploadService.IN_PROGRESS);
+
+        StepVerifier.create(service.complete(uploadId, uploader))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // The multipart upload is gone once assembled, so the retry must not complete it again
+        verify(multipartUploader, times(1)).complete(anyString(), anyString(), anyList());
+        assertThat(recordedFiles).containsExactly(uploadId);
+        assertThat(sessions.get(uploadId).getStatus()).isEqualTo(ResumableUploadService.COMPLETED);
+    }
+
+    @Test
+    void abortDropsTheUploadAndRefusesFurtherChunks() {
+        UUID uploadId = initiate();
+        uploadChunks(uploadId, 0);
+
+        StepVerifier.create(service.abort(uploadId, uploader)).expectNext(true).verifyComplete();
+        StepVerifier.create(service.abort(uploadId, uploader)).expectNext(false).verifyComplete();
+        StepVerifier.create(service.uploadChunk(uploadId, uploader, 1, chunk(PART_SIZE)))
+                .verifyError(IllegalStateException.class);
+
+        verify(multipartUploader, times(1)).abort(anyString(), anyString());
+        assertThat(sessions.get(uploadId).getStatus()).isEqualTo(ResumableUploadService.ABORTED);
+        assertThat(parts).doesNotContainKey(uploadId);
+    }
+
+    @Test
+    void uploadsAreInvisibleToOtherUsers() {
+        UUID uploadId = initiate();
+        uploadChunks(uploadId, 0, 1, 2);
+        UUID other = UUID.randomUUID();
+
+        StepVerifier.create(service.uploadChunk(uploadId, other, 0, chunk(PART_SIZE))).verifyComplete();
+        StepVerifier.create(service.getSession(uploadId, other)).verifyComplete();
+        StepVerifier.create(service.complete(uploadId, other)).verifyComplete();
+        StepVerifier.create(service.abort(uploadId, other)).expectNext(false).verifyComplete();
+
+        verify(multipartUploader, times(3)).uploadPart(anyString(), anyString(), anyInt(), any(byte[].class));
+        verify(multipartUploader, never()).complete(anyString(), anyString(), anyList());
+        assertThat(sessions.get(uploadId).getStatus()).isEqualTo(ResumableUploadService.IN_PROGRESS);
+    }
+
+    @Test
+    void expirySweepAbortsExpiredUploadsAndSettlesStalledCompletions() {
+        Instant longAgo = Instant.now().minus(Duration.ofHours(1));
+
+        UUID expired = initiate();
+        sessions.get(expired).setExpiresAt(longAgo);
+
+        UUID assembled = initiate(); // Died after MinIO assembled the object
+        stall(assembled, longAgo);
+        assembledObjects.add(sessions.get(assembled).getMinioPath());
+
+        UUID interrupted = initiate(); // Died before assembling, can still be completed by the client
+        stall(interrupted, longAgo);
+
+        UUID interruptedAndExpired = initiate();
+        stall(interruptedAndExpired, longAgo);
+        sessions.get(interruptedAndExpired).setExpiresAt(longAgo);
+
+        UUID active = initiate();
+
+        StepVerifier.create(service.abortExpired()).expectNext(3L).verifyComplete();
+
+        assertThat(sessions.get(expired).getStatus()).isEqualTo(ResumableUploadService.ABORTED);
+        assertThat(sessions.get(assembled).getStatus()).isEqualTo(ResumableUploadService.COMPLETED);
+        assertThat(sessions.get(interrupted).getStatus()).isEqualTo(ResumableUploadService.IN_PROGRESS);
+        assertThat(sessions.get(interruptedAndExpired).getStatus()).isEqualTo(ResumableUploadService.ABORTED);
+        assertThat(sessions.get(active).getStatus()).isEqualTo(ResumableUploadService.IN_PROGRESS);
+        assertThat(recordedFiles).containsExactly(assembled);
+        verify(multipartUploader, times(2)).abort(anyString(), anyString());
+    }
+
+    private UUID initiate() {
+        UploadSession session = service.initiate("video.mp4", "video/mp4", TOTAL_SIZE, uploader, "POST", "post-1").block();
+        assertThat(session.getChunkSize()).isEqualTo(PART_SIZE);
+        return UUID.fromString(session.getUploadId());
+    }
+
+    private void uploadChunks(UUID uploadId, int... indexes) {
+        for (int index : indexes) {
+            int length = (int) Math.min(PART_SIZE, TOTAL_SIZE - (long) index * PART_SIZE);
+            service.uploadChunk(uploadId, uploader, index, chunk(length)).block();
+        }
+    }
+
+    private void stall(UUID uploadId, Instant since) {
+        UploadSessionEntity session = sessions.get(uploadId);
+        session.setStatus(ResumableUploadService.COMPLETING);
+        session.setUpdatedAt(since);
+    }
+
+    private static Flux<DataBuffer> chunk(int length) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[length]));
+    }
+
+    private void stubSessionTable() {
+        when(r2dbcEntityTemplate.insert(any(UploadSessionEntity.class))).thenAnswer(inv -> {
+            UploadSessionEntity session = inv.getArgument(0);
+            sessions.put(session.getUploadId(), copy(session));
+            return Mono.just(session);
+        });
+        when(sessionRepository.findById(any(UUID.class))).thenAnswer(inv ->
+                Mono.fromSupplier(() -> sessions.get(inv.<UUID>getArgument(0))).map(ResumableUploadServiceTest::copy));
+        when(sessionRepository.transition(any(UUID.class), anyString(), anyString(), any(Instant.class))).thenAnswer(inv ->
+                Mono.fromSupplier(() -> {
+                    AtomicInteger updated = new AtomicInteger();
+                    sessions.computeIfPresent(inv.getArgument(0), (id, session) -> {
+                        if (session.getStatus().equals(inv.getArgument(1))) {
+                            session.setStatus(inv.getArgument(2));
+                            session.setUpdatedAt(inv.getArgument(3));
+                            updated.set(1);
+                        }
+                        return session;
+                    });
+                    return updated.get();
+                }));
+        when(sessionRepository.findExpired(any(Instant.class), any(Instant.class), anyInt())).thenAnswer(inv -> {
+            Instant now = inv.getArgument(0);
+            Instant completingBefore = inv.getArgument(1);
+            return Flux.fromIterable(new ArrayList<>(sessions.values()))
+                    .filter(session -> (ResumableUploadService.IN_PROGRESS.equals(session.getStatus()) && session.getExpiresAt().isBefore(now))
+                            || (ResumableUploadService.COMPLETING.equals(session.getStatus()) && session.getUpdatedAt().isBefore(completingBefore)))
+                    .map(ResumableUploadServiceTest::copy)
+                    .take(inv.<Integer>getArgument(2));
+        });
+    }
+
+    private void stubPartTable() {
+        when(partRepository.upsert(any(UUID.class), anyInt(), anyLong(), anyString(), any(Instant.class))).thenAnswer(inv ->
+                Mono.fromSupplier(() -> {
+                    UUID uploadId = inv.getArgument(0);
+                    int partNumber = inv.getArgument(1);
+                    parts.computeIfAbsent(uploadId, id -> new TreeMap<>()).put(partNumber, UploadPartEntity.builder()
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .size(inv.getArgument(2))
+                            .etag(inv.getArgument(3))
+                            .createdAt(inv.getArgument(4))
+                            .build());
+                    return 1;
+                }));
+        when(partRepository.findByUploadIdOrderByPartNumber(any(UUID.class))).thenAnswer(inv ->
+                Flux.defer(() -> Flux.fromIterable(new ArrayList<>(parts.getOrDefault(inv.<UUID>getArgument(0), new TreeMap<>()).values()))));
+        when(partRepository.deleteByUploadId(any(UUID.class))).thenAnswer(inv ->
+                Mono.fromSupplier(() -> {
+                    SortedMap<Integer, UploadPartEntity> removed = parts.remove(inv.<UUID>getArgument(0));
+                    return removed != null ? removed.size() : 0;
+                }));
+    }
+
+    private void stubMinio() {
+        when(multipartUploader.partSize()).thenReturn(PART_SIZE);
+        when(multipartUploader.initiate(anyString(), anyString())).thenReturn(Mono.just("s3-upload"));
+        when(multipartUploader.uploadPart(anyString(), anyString(), anyInt(), any(byte[].class))).thenAnswer(inv ->
+                Mono.just(new Part(inv.<Integer>getArgument(2), "etag-" + inv.getArgument(2))));
+        when(multipartUploader.complete(anyString(), anyString(), anyList())).thenAnswer(inv ->
+                Mono.<ObjectWriteResponse>fromRunnable(() -> assembledObjects.add(inv.getArgument(0))));
+        when(multipartUploader.exists(anyString())).thenAnswer(inv ->
+                Mono.fromSupplier(() -> assembledObjects.contains(inv.<String>getArgument(0))));
+        when(multipartUploader.abort(anyString(), anyString())).thenReturn(Mono.empty());
+    }
+
+    private static UploadSessionEntity copy(UploadSessionEntity session) {
+        return UploadSessionEntity.builder()
+                .uploadId(session.getUploadId())
+                .s3UploadId(session.getS3UploadId())
+                .minioPath(session.getMinioPath())
+                .fileName(session.getFileName())
+                .mimeType(session.getMimeType())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .uploaderId(session.getUploaderId())
+                .entityType(session.getEntityType())
+                .entityId(session.getEntityId())
+                .status(session.getStatus())
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}